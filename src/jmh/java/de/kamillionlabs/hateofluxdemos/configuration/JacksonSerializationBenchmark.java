@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.configuration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.kamillionlabs.hateoflux.model.hal.HalEmbeddedWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.Link;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.service.BookService;
+import de.kamillionlabs.hateofluxdemos.service.OrderService;
+import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization throughput of the HAL wrappers of the order and book endpoints, with Jackson's reflective accessors
+ * and with the accessors generated by the module of {@link JacksonConfiguration}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JacksonSerializationBenchmark {
+
+    @Param({"reflective", "generated"})
+    String accessors;
+
+    private ObjectMapper objectMapper;
+    private HalResourceWrapper<OrderDTO, ShipmentDTO> orderWithShipment;
+    private HalListWrapper<BookDTO, AuthorDTO> booksOfAuthor;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        if (accessors.equals("generated")) {
+            objectMapper.registerModule(new JacksonConfiguration().blackbirdModule());
+        }
+
+        OrderDTO order = new OrderService().getOrder(1234).block();
+        ShipmentDTO shipment = new ShipmentService().getLastShipmentByOrderId(1234).block();
+        orderWithShipment = HalResourceWrapper.wrap(order)
+                .withLinks(Link.linkAsSelfOf("order/1234"))
+                .withEmbeddedResource(HalEmbeddedWrapper.wrap(shipment)
+                        .withLinks(Link.linkAsSelfOf("shipment/" + shipment.getId())));
+
+        BookService bookService = new BookService();
+        AuthorDTO author = bookService.getAuthorByName("Erich Gamma").block();
+        List<HalResourceWrapper<BookDTO, AuthorDTO>> books = bookService.getAllBooksByAuthorName("Erich Gamma")
+                .map(book -> HalResourceWrapper.wrap(book)
+                        .withLinks(Link.linkAsSelfOf("/book/" + book.getId()))
+                        .withEmbeddedResource(HalEmbeddedWrapper.wrap(author)))
+                .collectList()
+                .block();
+        booksOfAuthor = HalListWrapper.wrap(books)
+                .withLinks(Link.linkAsSelfOf("/books?authorName=Erich+Gamma"));
+    }
+
+    @Benchmark
+    public byte[] orderWithShipment() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderWithShipment);
+    }
+
+    @Benchmark
+    public byte[] booksOfAuthor() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(booksOfAuthor);
+    }
+}
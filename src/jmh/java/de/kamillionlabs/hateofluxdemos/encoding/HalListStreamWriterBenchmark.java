@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.encoding;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalPageInfo;
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.Link;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a page of orders, once collected into a {@link HalListWrapper} and once streamed by the
+ * {@link HalListStreamWriter}. {@code firstResourceStreamed} is how long the streamed response takes until its first
+ * order is written, which the collected one can't send before all of them are serialized. Run with
+ * {@code -PjmhProfilers=gc} to compare the allocations per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HalListStreamWriterBenchmark {
+
+    private static final DataBufferFactory BUFFER_FACTORY = DefaultDataBufferFactory.sharedInstance;
+
+    @Param({"20", "500"})
+    int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HalListStreamWriter writer = new HalListStreamWriter(objectMapper);
+
+    private List<HalResourceWrapper<OrderDTO, Void>> orders;
+    private List<Link> links;
+    private HalPageInfo pageInfo;
+
+    @Setup
+    public void setUp() {
+        orders = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            int id = 1000 + i;
+            orders.add(HalResourceWrapper.wrap(new OrderDTO(id, 37L, 99.99, "Delivered"))
+                    .withLinks(Link.linkAsSelfOf("http://localhost:8080/orders/" + id)));
+        }
+        pageInfo = HalPageInfo.assembleWithOffset(pageSize, 10L * pageSize, pageSize);
+        links = Link.of("http://localhost:8080/orders?userId=37").deriveNavigationLinks(pageInfo, List.of());
+    }
+
+    @Benchmark
+    public byte[] collected() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(HalListWrapper.wrap(orders)
+                .withLinks(links.toArray(Link[]::new))
+                .withPageInfo(pageInfo));
+    }
+
+    @Benchmark
+    public Integer streamed() {
+        return stream()
+                .map(buffer -> {
+                    int length = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return length;
+                })
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    @Benchmark
+    public DataBuffer firstResourceStreamed() {
+        // The header is followed by the first order
+        return stream().elementAt(1).block();
+    }
+
+    private Flux<DataBuffer> stream() {
+        return writer.write(OrderDTO.class, Flux.fromIterable(orders),
+                Mono.just(new HalListStreamWriter.Trailer(links, pageInfo)), BUFFER_FACTORY);
+    }
+}
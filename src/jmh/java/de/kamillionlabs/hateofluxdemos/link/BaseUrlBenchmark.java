@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateoflux.model.link.Link;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the self links of a page of orders and of their embedded shipments, like the {@code OrderAssembler} does for
+ * one request. Run with {@code -PjmhProfilers=gc} to compare the allocations per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BaseUrlBenchmark {
+
+    @Param({"20", "500"})
+    int pageSize;
+
+    private String[] orderPaths;
+    private String[] shipmentPaths;
+
+    @Setup
+    public void setUp() {
+        orderPaths = new String[pageSize];
+        shipmentPaths = new String[pageSize];
+        for (int i = 0; i < pageSize; i++) {
+            orderPaths[i] = "order/" + (1000 + i);
+            shipmentPaths[i] = "shipment/" + (2000 + i);
+        }
+    }
+
+    @Benchmark
+    public void prependBaseUrlToEveryLink(Blackhole blackhole) {
+        ServerWebExchange exchange = newExchange();
+        for (int i = 0; i < pageSize; i++) {
+            blackhole.consume(Link.of(orderPaths[i]).prependBaseUrl(exchange));
+            blackhole.consume(Link.of(shipmentPaths[i]).prependBaseUrl(exchange));
+        }
+    }
+
+    @Benchmark
+    public void resolveBaseUrlOnce(Blackhole blackhole) {
+        ServerWebExchange exchange = newExchange();
+        for (int i = 0; i < pageSize; i++) {
+            blackhole.consume(BaseUrl.link(orderPaths[i], exchange));
+            blackhole.consume(BaseUrl.link(shipmentPaths[i], exchange));
+        }
+    }
+
+    /**
+     * Every page is a new request, so the cached base URL of the previous one must not be reused.
+     */
+    private static ServerWebExchange newExchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest
+                .get("http://myservice:8080/assembled/orders?userId=37")
+                .build());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateoflux.model.link.Link;
+import de.kamillionlabs.hateofluxdemos.controller.ShipmentController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import static de.kamillionlabs.hateoflux.linkbuilder.SpringControllerLinkBuilder.linkTo;
+
+/**
+ * Builds the shipment link of {@code ManualOrderController.getOrderWithShipment}, once through the proxy of
+ * {@code SpringControllerLinkBuilder} and once from the route table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteTableBenchmark {
+
+    private static final Method GET_SHIPMENT = RouteTable.methodOf(ShipmentController.class, c -> c.getShipment(0));
+
+    private final RouteTable routeTable = RouteTable.of(ShipmentController.class);
+
+    private final int shipmentId = 4711;
+
+    @Benchmark
+    public Link linkThroughProxy() {
+        return linkTo(ShipmentController.class, c -> c.getShipment(shipmentId));
+    }
+
+    @Benchmark
+    public Link linkFromRouteTable() {
+        return routeTable.linkTo(GET_SHIPMENT, shipmentId);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateoflux.model.link.Link;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expands the templates of the hot endpoints, once by parsing them with {@link Link#expand} on every call and once
+ * from the templates precompiled in {@link LinkTemplates}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UriTemplateBenchmark {
+
+    private final MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+
+    private final int orderId = 1234;
+
+    {
+        queryParams.add("userId", "37");
+        queryParams.add("someDifferentFilter", "delivered");
+    }
+
+    @Benchmark
+    public String orderShipmentParsedPerCall() {
+        return Link.of("orders/{orderId}/shipment").expand(orderId).getHref();
+    }
+
+    @Benchmark
+    public String orderShipmentPrecompiled() {
+        return Link.of(LinkTemplates.ORDER_SHIPMENT.expand(orderId)).getHref();
+    }
+
+    @Benchmark
+    public String ordersOfQueryParamsParsedPerCall() {
+        return Link.of("order{?userId,someDifferentFilter}").expand(queryParams).getHref();
+    }
+
+    @Benchmark
+    public String ordersOfQueryParamsPrecompiled() {
+        return Link.of(LinkTemplates.ASSEMBLED_ORDERS.expand(queryParams)).getHref();
+    }
+
+    @Benchmark
+    public String booksOfAuthorParsedPerCall() {
+        return Link.of("/books{?authorName,cursor,size}").expand("Joshua Bloch", "AAAB", 2).getHref();
+    }
+
+    @Benchmark
+    public String booksOfAuthorPrecompiled() {
+        return Link.of(LinkTemplates.BOOKS_OF_AUTHOR_PAGE.expand("Joshua Bloch", "AAAB", 2)).getHref();
+    }
+}
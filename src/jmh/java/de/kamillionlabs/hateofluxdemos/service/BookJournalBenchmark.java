@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.persistence.MappedBookJournal;
+import de.kamillionlabs.hateofluxdemos.storage.HeapBookTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Measures the two costs of persisting books: how long a write waits until its mutation is durable, and how long
+ * the {@link BookService} takes to start up by replaying a journal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+public class BookJournalBenchmark {
+
+    private static final String AUTHOR = "Journal Author";
+    private static final int FIRST_ID = 1_000_000;
+    private static final int BOOKS_OF_AUTHOR = 1_000;
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(2);
+    private static final long NO_SNAPSHOTS = Long.MAX_VALUE;
+
+    /**
+     * Directory with a journal of {@code mutations} book updates and no snapshot.
+     */
+    @State(Scope.Benchmark)
+    public static class WrittenJournal {
+
+        @Param({"10000", "100000"})
+        int mutations;
+
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("book-journal-benchmark");
+            try (MappedBookJournal journal = openJournal(directory)) {
+                BookService bookService = new BookService(new HeapBookTable(), journal);
+                addAuthor(bookService);
+                // The writes happen right away, only waiting for the last one to be durable
+                for (int i = 0; i < mutations - 1; i++) {
+                    bookService.updateBook(updateOf(i));
+                }
+                bookService.updateBook(updateOf(mutations - 1)).block();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteDirectory(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OpenJournal {
+
+        Path directory;
+        MappedBookJournal journal;
+        BookService bookService;
+        final AtomicInteger updates = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("book-journal-benchmark");
+            journal = openJournal(directory);
+            bookService = new BookService(new HeapBookTable(), journal);
+            addAuthor(bookService);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            journal.close();
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Concurrent writers share the fsync of a flush interval, so the time per write should stay close to the flush
+     * interval instead of adding up.
+     */
+    @Benchmark
+    @Threads(4)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BookDTO updateBookDurably(OpenJournal open) {
+        return open.bookService.updateBook(updateOf(open.updates.getAndIncrement())).block();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BookService startUpByReplayingJournal(WrittenJournal written) {
+        try (MappedBookJournal journal = openJournal(written.directory)) {
+            return new BookService(new HeapBookTable(), journal);
+        }
+    }
+
+    private static MappedBookJournal openJournal(Path directory) {
+        return new MappedBookJournal(directory, SEGMENT_SIZE, FLUSH_INTERVAL, NO_SNAPSHOTS);
+    }
+
+    private static void addAuthor(BookService bookService) {
+        List<BookDTO> books = new ArrayList<>(BOOKS_OF_AUTHOR);
+        for (int i = 0; i < BOOKS_OF_AUTHOR; i++) {
+            books.add(BookDTO.builder()
+                    .id(FIRST_ID + i)
+                    .title("Journal Book " + i)
+                    .author(AUTHOR)
+                    .build());
+        }
+        bookService.addAuthorWithBooks(AuthorDTO.builder().id(FIRST_ID).name(AUTHOR).build(), books).block();
+    }
+
+    private static BookDTO updateOf(int revision) {
+        return BookDTO.builder()
+                .title("Journal Book " + revision % BOOKS_OF_AUTHOR)
+                .isbn("revision-" + revision)
+                .build();
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
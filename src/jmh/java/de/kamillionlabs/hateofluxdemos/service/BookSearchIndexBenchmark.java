@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a search for the first page of results in one million books, compared with scanning all titles as
+ * {@code getBookByTitle} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookSearchIndexBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final int AUTHORS = 10_000;
+    private static final int LIMIT = 20;
+    private static final String[] WORDS = {
+            "dragon", "dragonfly", "drama", "king", "kingdom", "kingfisher", "shadow", "shadows", "winter",
+            "winds", "wind", "night", "nightfall", "stone", "stones", "river", "riverside", "silent", "silence",
+            "garden", "gardens", "empire", "empires", "crown", "crowned", "glass", "glasses", "forest",
+            "forests", "storm", "stormlight", "ember", "embers", "tide", "tides", "ash", "ashes", "iron", "ironwood",
+            "moon", "moonlight", "sea", "seas", "secret", "secrets", "star", "stars", "song", "songs", "war"};
+
+    /**
+     * An exact term, a prefix, two terms and an author name.
+     */
+    @Param({"dragon", "drag", "dragon king", "author 4711"})
+    String query;
+
+    private BookSearchIndex index;
+    private String[] lowerCaseTitles;
+
+    @Setup
+    public void setUp() {
+        index = new BookSearchIndex();
+        lowerCaseTitles = new String[BOOKS];
+        Random random = new Random(42);
+        for (int id = 0; id < BOOKS; id++) {
+            String title = "The " + WORDS[random.nextInt(WORDS.length)] + " of " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            index.index(BookDTO.builder()
+                    .id(id)
+                    .title(title)
+                    .author("Author " + random.nextInt(AUTHORS))
+                    .build());
+            lowerCaseTitles[id] = title.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Benchmark
+    public BookSearchIndex.Hits searchIndex() {
+        return index.search(query, LIMIT);
+    }
+
+    /**
+     * Finds the first titles containing the query, without any ranking. Still has to look at every title to count the
+     * matches.
+     */
+    @Benchmark
+    public int[] scanTitles() {
+        int[] ids = new int[LIMIT];
+        int matches = 0;
+        for (int id = 0; id < lowerCaseTitles.length; id++) {
+            if (lowerCaseTitles[id].contains(query)) {
+                if (matches < LIMIT) {
+                    ids[matches] = id;
+                }
+                matches++;
+            }
+        }
+        return Arrays.copyOf(ids, Math.min(matches, LIMIT));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.persistence.BookJournal;
+import de.kamillionlabs.hateofluxdemos.storage.HeapBookTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads all books of an author while another thread keeps updating them. Readers work on the published version of
+ * the author and must not slow down because of the writer; compare {@code readWhileWriting:readAllBooksOfAuthor}
+ * with {@code readOnly}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BookServiceBenchmark {
+
+    private static final String AUTHOR = "Benchmark Author";
+    private static final int FIRST_ID = 1_000_000;
+
+    @Param({"100", "10000"})
+    int booksOfAuthor;
+
+    private BookService bookService;
+    private int updatedBook;
+
+    @Setup
+    public void setUp() {
+        bookService = new BookService(new HeapBookTable(), BookJournal.NONE);
+        List<BookDTO> books = new ArrayList<>(booksOfAuthor);
+        for (int i = 0; i < booksOfAuthor; i++) {
+            books.add(BookDTO.builder()
+                    .id(FIRST_ID + i)
+                    .title("Benchmark Book " + i)
+                    .author(AUTHOR)
+                    .isbn("978-0-00-000000-0")
+                    .build());
+        }
+        bookService.addAuthorWithBooks(AuthorDTO.builder().id(FIRST_ID).name(AUTHOR).build(), books).block();
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(3)
+    public List<BookDTO> readAllBooksOfAuthorWithoutWriter() {
+        return bookService.getAllBooksByAuthorName(AUTHOR).collectList().block();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public List<BookDTO> readAllBooksOfAuthor() {
+        return bookService.getAllBooksByAuthorName(AUTHOR).collectList().block();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public BookDTO updateBooksOfAuthor() {
+        // Only the single writer thread of the group touches the counter
+        int revision = updatedBook++;
+        return bookService.updateBook(BookDTO.builder()
+                        .title("Benchmark Book " + revision % booksOfAuthor)
+                        .isbn("revision-" + revision)
+                        .build())
+                .block();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a paginated request for the orders of a user costs with ten million orders: the count and the first page. The
+ * index is compared with filtering a list of all orders, which both used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class OrderServiceBenchmark {
+
+    private static final int ORDERS = 10_000_000;
+    private static final int USERS = 100_000;
+    private static final int BATCH_SIZE = 100_000;
+    private static final String[] STATUSES = {"Created", "Processing", "Delivered", "Returned"};
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Param({"4711"})
+    long userId;
+
+    private OrderService orderService;
+    private List<OrderDTO> allOrders;
+
+    @Setup
+    public void setUp() {
+        orderService = new OrderService();
+        allOrders = new ArrayList<>(ORDERS);
+        Random random = new Random(42);
+        for (int batchStart = 0; batchStart < ORDERS; batchStart += BATCH_SIZE) {
+            List<OrderDTO> batch = new ArrayList<>(BATCH_SIZE);
+            for (int id = batchStart; id < batchStart + BATCH_SIZE; id++) {
+                // Ids of the sample orders are below 10000
+                batch.add(new OrderDTO(10_000 + id, random.nextInt(USERS), random.nextInt(50_000) / 100.0,
+                        STATUSES[random.nextInt(STATUSES.length)]));
+            }
+            orderService.addOrders(batch).block();
+            allOrders.addAll(batch);
+        }
+    }
+
+    @Benchmark
+    public Long countOrdersOfUser() {
+        return orderService.countAllOrders(userId).block();
+    }
+
+    @Benchmark
+    public List<OrderDTO> firstPageOfUser() {
+        return orderService.getOrders(userId, FIRST_PAGE).collectList().block();
+    }
+
+    @Benchmark
+    public long countOrdersOfUserByScanning() {
+        return allOrders.stream()
+                .filter(order -> order.getUserId() == userId)
+                .count();
+    }
+
+    @Benchmark
+    public List<OrderDTO> firstPageOfUserByScanning() {
+        return allOrders.stream()
+                .filter(order -> order.getUserId() == userId)
+                .skip(FIRST_PAGE.getOffset())
+                .limit(FIRST_PAGE.getPageSize())
+                .toList();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.storage;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the object per book table with the compact one. The heap retained by the filled table is printed during
+ * the setup; the allocation rate and GC time of the lookups are reported with {@code -PjmhProfilers=gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookTableBenchmark {
+
+    private static final int AUTHORS = 10_000;
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"heap", "compact"})
+    String storage;
+
+    @Param({"1000000", "5000000"})
+    int books;
+
+    private BookTable table;
+    private int[] randomIds;
+    private int lookup;
+
+    @Setup
+    public void setUp() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        table = storage.equals("compact") ? new CompactBookTable() : new HeapBookTable();
+        for (int id = 0; id < books; id++) {
+            String author = "Author " + id % AUTHORS;
+            table.insert(BookDTO.builder()
+                    .id(id)
+                    .title("Book " + id)
+                    .author(author)
+                    .isbn("978-3-16-" + id)
+                    .publishedDate("2001-01-01")
+                    .build(), author.toLowerCase(Locale.ROOT), 1);
+        }
+
+        System.gc();
+        System.out.printf("%nRetained heap of the %s table with %d books: %d MB%n", storage, books,
+                (memory.getHeapMemoryUsage().getUsed() - heapBefore) >> 20);
+
+        Random random = new Random(42);
+        randomIds = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            randomIds[i] = random.nextInt(books);
+        }
+    }
+
+    @Benchmark
+    public BookDTO getById() {
+        return table.get(table.findById(nextId()));
+    }
+
+    @Benchmark
+    public int findByTitle() {
+        return table.findByTitle("Book " + nextId());
+    }
+
+    private int nextId() {
+        return randomIds[lookup++ & (LOOKUPS - 1)];
+    }
+}
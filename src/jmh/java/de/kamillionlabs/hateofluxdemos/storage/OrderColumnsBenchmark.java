@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.storage;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates revenue and the number of orders per status over all orders, once over the columns and once over a list
+ * of {@link OrderDTO}s, sequentially and as a parallel stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderColumnsBenchmark {
+
+    private static final String[] STATUSES = {"Created", "Processing", "Delivered", "Returned"};
+
+    @Param({"1000000", "10000000"})
+    int orders;
+
+    private OrderColumns columns;
+    private List<OrderDTO> orderList;
+
+    @Setup
+    public void setUp() {
+        columns = new OrderColumns(orders);
+        orderList = new ArrayList<>(orders);
+        Random random = new Random(42);
+        for (int id = 0; id < orders; id++) {
+            OrderDTO order = new OrderDTO(id, random.nextInt(100_000), random.nextInt(50_000) / 100.0,
+                    STATUSES[random.nextInt(STATUSES.length)]);
+            columns.append(order);
+            orderList.add(order);
+        }
+    }
+
+    @Benchmark
+    public OrderColumns.Aggregate aggregateColumns() {
+        return columns.aggregate(columns.size());
+    }
+
+    @Benchmark
+    public Map<String, Long> aggregateObjects() {
+        Map<String, Long> ordersByStatus = new HashMap<>();
+        double revenue = 0;
+        for (OrderDTO order : orderList) {
+            revenue += order.getTotal();
+            ordersByStatus.merge(order.getStatus(), 1L, Long::sum);
+        }
+        ordersByStatus.put("revenue", (long) revenue);
+        return ordersByStatus;
+    }
+
+    @Benchmark
+    public Map<String, Long> aggregateObjectsInParallel() {
+        Map<String, Long> ordersByStatus = orderList.parallelStream()
+                .collect(Collectors.groupingByConcurrent(OrderDTO::getStatus, Collectors.counting()));
+        ordersByStatus.put("revenue", (long) orderList.parallelStream().mapToDouble(OrderDTO::getTotal).sum());
+        return ordersByStatus;
+    }
+}
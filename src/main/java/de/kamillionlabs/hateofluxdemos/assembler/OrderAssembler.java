@@ -11,6 +11,8 @@ import de.kamillionlabs.hateoflux.assembler.EmbeddingHalWrapperAssembler;
 import de.kamillionlabs.hateoflux.model.link.Link;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.link.BaseUrl;
+import de.kamillionlabs.hateofluxdemos.link.LinkTemplates;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
@@ -34,22 +36,21 @@ public class OrderAssembler implements EmbeddingHalWrapperAssembler<OrderDTO, Sh
 
     @Override
     public Link buildSelfLinkForResource(OrderDTO resourceToWrap, ServerWebExchange exchange) {             //5
-        return Link.of("order/" + resourceToWrap.getId())                                                   //6
-                .prependBaseUrl(exchange);                                                                  //7
+        return BaseUrl.link("order/" + resourceToWrap.getId(),                                              //6
+                exchange);                                                                                  //7
     }
 
     @Override
     public Link buildSelfLinkForEmbedded(ShipmentDTO embedded, ServerWebExchange exchange) {                //8
-        return Link.of("shipment/" + embedded.getId())
-                .prependBaseUrl(exchange)
+        return BaseUrl.link("shipment/" + embedded.getId(), exchange)
                 .withHreflang("en-US");
     }
 
     @Override
     public Link buildSelfLinkForResourceList(ServerWebExchange exchange) {                                  //9
         MultiValueMap<String, String> queryParams = exchange.getRequest().getQueryParams();                 //10
-        return Link.of("order{?userId,someDifferentFilter}")                                               //11
-                .expand(queryParams)
-                .prependBaseUrl(exchange);
+        return BaseUrl.link(LinkTemplates.ASSEMBLED_ORDERS                                                  //11
+                        .expand(queryParams),
+                exchange);
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.configuration;
+
+import de.kamillionlabs.hateofluxdemos.persistence.MappedBookJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class BookJournalConfiguration {
+
+    /**
+     * Books are only persisted if a journal directory is configured. Otherwise, they live in memory only.
+     *
+     * @param directory
+     *         directory for the log segments and snapshots
+     * @param segmentSize
+     *         size of a memory-mapped log segment in bytes
+     * @param flushIntervalMillis
+     *         group commit window, i.e. how long writes may wait for their fsync
+     * @param snapshotInterval
+     *         number of mutations after which a new snapshot is written
+     * @return the journal used by the {@link de.kamillionlabs.hateofluxdemos.service.BookService}
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("hateoflux-demos.book-journal.directory")
+    public MappedBookJournal bookJournal(
+            @Value("${hateoflux-demos.book-journal.directory}") Path directory,
+            @Value("${hateoflux-demos.book-journal.segment-size:67108864}") int segmentSize,
+            @Value("${hateoflux-demos.book-journal.flush-interval-millis:2}") long flushIntervalMillis,
+            @Value("${hateoflux-demos.book-journal.snapshot-interval:100000}") long snapshotInterval) {
+        return new MappedBookJournal(directory, segmentSize, Duration.ofMillis(flushIntervalMillis), snapshotInterval);
+    }
+}
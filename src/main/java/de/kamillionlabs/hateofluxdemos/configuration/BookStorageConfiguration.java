@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.configuration;
+
+import de.kamillionlabs.hateofluxdemos.storage.BookTable;
+import de.kamillionlabs.hateofluxdemos.storage.CompactBookTable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class BookStorageConfiguration {
+
+    /**
+     * Stores books column by column with their strings off-heap. Meant for catalogs with millions of books. Without
+     * this setting, the {@link de.kamillionlabs.hateofluxdemos.service.BookService} keeps one object per book.
+     *
+     * @return the table used by the {@link de.kamillionlabs.hateofluxdemos.service.BookService}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "hateoflux-demos.books.storage", havingValue = "compact")
+    public BookTable compactBookTable() {
+        return new CompactBookTable();
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfiguration {
+
+    /**
+     * Replaces the reflective getter calls of Jackson's bean serializers with generated lambdas. This speeds up the
+     * serialization of the Lombok DTOs in every HAL response. Spring Boot registers every {@link Module} bean with the
+     * application's {@code ObjectMapper}.
+     *
+     * @return the module that generates the accessors
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.configuration;
+
+import de.kamillionlabs.hateoflux.utility.pair.PairList;
+import de.kamillionlabs.hateofluxdemos.dataset.SyntheticDataGenerator;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.service.BookService;
+import de.kamillionlabs.hateofluxdemos.service.OrderService;
+import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Configuration
+public class SyntheticDataConfiguration {
+
+    /**
+     * Fills the services with a synthetic dataset in addition to their sample data. Only happens if a seed is
+     * configured, e.g. by activating the {@code synthetic} profile. The data is loaded once all beans exist, i.e.
+     * before the server accepts requests.
+     *
+     * @param seed
+     *         seed of the {@link SyntheticDataGenerator}; the same seed and sizes always result in the same dataset
+     * @param zipfExponent
+     *         skew of the activity of users and authors, {@code 0} means uniform
+     * @param maxShipmentsPerOrder
+     *         every order gets between none and this many shipments
+     */
+    @Bean
+    @ConditionalOnProperty("hateoflux-demos.dataset.seed")
+    public SmartInitializingSingleton syntheticDataLoader(
+            OrderService orderService,
+            ShipmentService shipmentService,
+            BookService bookService,
+            @Value("${hateoflux-demos.dataset.seed}") long seed,
+            @Value("${hateoflux-demos.dataset.zipf-exponent:1.0}") double zipfExponent,
+            @Value("${hateoflux-demos.dataset.users:10000}") int users,
+            @Value("${hateoflux-demos.dataset.orders:100000}") int orders,
+            @Value("${hateoflux-demos.dataset.max-shipments-per-order:3}") int maxShipmentsPerOrder,
+            @Value("${hateoflux-demos.dataset.authors:1000}") int authors,
+            @Value("${hateoflux-demos.dataset.books:100000}") int books) {
+        return () -> {
+            long start = System.nanoTime();
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(seed, zipfExponent);
+
+            List<OrderDTO> generatedOrders = generator.orders(orders, users);
+            PairList<Integer, ShipmentDTO> generatedShipments =
+                    generator.shipments(generatedOrders, maxShipmentsPerOrder);
+            List<AuthorDTO> generatedAuthors = generator.authors(authors);
+            List<BookDTO> generatedBooks = generator.books(books, generatedAuthors);
+            long generated = System.nanoTime();
+
+            orderService.addOrders(generatedOrders).block();
+            shipmentService.addShipments(generatedShipments);
+            // Authors and books are already there if they were restored from the journal
+            generatedAuthors.forEach(author -> bookService.addAuthor(author)
+                    .onErrorComplete(IllegalArgumentException.class)
+                    .block());
+            bookService.addBooks(generatedBooks).block();
+
+            log.info("Loaded {} orders of {} users, {} shipments, {} authors and {} books (seed {}) "
+                            + "in {} ms, of which generating took {} ms",
+                    orders, users, generatedShipments.size(), authors, books, seed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    TimeUnit.NANOSECONDS.toMillis(generated - start));
+        };
+    }
+}
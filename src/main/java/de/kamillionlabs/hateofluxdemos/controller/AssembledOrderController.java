@@ -7,17 +7,26 @@
  */
 package de.kamillionlabs.hateofluxdemos.controller;
 
+import de.kamillionlabs.hateoflux.http.HalMultiResourceResponse;
+import de.kamillionlabs.hateoflux.model.hal.HalEmbeddedWrapper;
 import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalPageInfo;
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
 import de.kamillionlabs.hateoflux.utility.SortCriteria;
 import de.kamillionlabs.hateoflux.utility.pair.PairFlux;
 import de.kamillionlabs.hateofluxdemos.assembler.OrderAssembler;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.encoding.HalListStreamWriter;
+import de.kamillionlabs.hateofluxdemos.service.LastShipmentLoader;
 import de.kamillionlabs.hateofluxdemos.service.OrderService;
 import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -49,6 +58,12 @@ public class AssembledOrderController {
     @Autowired
     private ShipmentService shipmentService;
 
+    @Autowired
+    private LastShipmentLoader lastShipmentLoader;
+
+    @Autowired
+    private HalListStreamWriter halListStreamWriter;
+
 
     /**
      * Cookbook example: Using an Assembler to Create a `HalListWrapper` For Resources With an Embedded Resource
@@ -60,8 +75,7 @@ public class AssembledOrderController {
                                                                                ServerWebExchange exchange) {                    // 3
 
         Flux<OrderDTO> orders = orderService.getOrders(userId, pageable);
-        PairFlux<OrderDTO, ShipmentDTO> ordersWithShipment =
-                PairFlux.zipWith(orders, (order -> shipmentService.getLastShipmentByOrderId(order.getId())));                   // 4
+        PairFlux<OrderDTO, ShipmentDTO> ordersWithShipment = lastShipmentLoader.withLastShipments(orders);                      // 4
 
         Mono<Long> totalElements = orderService.countAllOrders(userId);                                                         // 5
 
@@ -72,4 +86,66 @@ public class AssembledOrderController {
                 .toList();
         return orderAssembler.wrapInListWrapper(ordersWithShipment, totalElements, pageSize, offset, sortCriteria, exchange);   // 7
     }
+
+    /**
+     * Exports all orders or those of one user together with their last shipment as NDJSON or server-sent events.
+     * Orders are read and wrapped one at a time as the client requests them, so the export doesn't buffer, no matter
+     * how many orders there are.
+     */
+    @GetMapping(value = "/orders/export",
+                produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public HalMultiResourceResponse<OrderDTO, ShipmentDTO> exportOrders(@RequestParam(required = false) Long userId,
+                                                                       ServerWebExchange exchange) {
+        return HalMultiResourceResponse.of(wrapWithLastShipment(orderService.getAllOrders(userId), exchange),
+                HttpStatus.OK);
+    }
+
+    /**
+     * Same as {@link #getOrdersWithShipmentAndPagination(Long, Pageable, ServerWebExchange)}, but every order is written
+     * as soon as its last shipment is loaded instead of collecting the page first. Links and page info follow the
+     * orders; they are built by the {@link OrderAssembler} as well, so the same query parameters end up in the links.
+     */
+    @GetMapping(value = "/orders-with-single-embedded-and-pagination/streamed",
+                produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> streamOrdersWithShipmentAndPagination(@RequestParam(required = false) Long userId,
+                                                                  Pageable pageable,
+                                                                  ServerWebExchange exchange) {
+        Flux<HalResourceWrapper<OrderDTO, ShipmentDTO>> orders =
+                wrapWithLastShipment(orderService.getOrders(userId, pageable), exchange);
+
+        int pageSize = pageable.getPageSize();
+        long offset = pageable.getOffset();
+        List<SortCriteria> sortCriteria = pageable.getSort().get()
+                .map(o -> SortCriteria.by(o.getProperty(), o.getDirection().isAscending() ? ASCENDING : DESCENDING))
+                .toList();
+        Mono<HalListStreamWriter.Trailer> trailer = orderService.countAllOrders(userId)
+                .map(totalElements -> {
+                    HalPageInfo pageInfo = HalPageInfo.assembleWithOffset(pageSize, totalElements, offset);
+                    return new HalListStreamWriter.Trailer(orderAssembler.buildSelfLinkForResourceList(exchange)
+                            .deriveNavigationLinks(pageInfo, sortCriteria), pageInfo);
+                });
+
+        return halListStreamWriter.write(OrderDTO.class, orders, trailer, exchange.getResponse().bufferFactory());
+    }
+
+    private Flux<HalResourceWrapper<OrderDTO, ShipmentDTO>> wrapWithLastShipment(Flux<OrderDTO> orders,
+                                                                               ServerWebExchange exchange) {
+        return orders.concatMap(order -> shipmentService.getLastShipmentByOrderId(order.getId())
+                .map(shipment -> wrapOrder(order, shipment, exchange))
+                .switchIfEmpty(Mono.fromSupplier(() -> wrapOrder(order, exchange))));
+    }
+
+    private HalResourceWrapper<OrderDTO, ShipmentDTO> wrapOrder(OrderDTO order, ServerWebExchange exchange) {
+        return HalResourceWrapper.wrap(order)
+                .withLinks(orderAssembler.buildSelfLinkForResource(order, exchange))
+                .withEmbeddedResource(HalEmbeddedWrapper.empty());
+    }
+
+    private HalResourceWrapper<OrderDTO, ShipmentDTO> wrapOrder(OrderDTO order, ShipmentDTO shipment,
+                                                                ServerWebExchange exchange) {
+        return HalResourceWrapper.wrap(order)
+                .withLinks(orderAssembler.buildSelfLinkForResource(order, exchange))
+                .withEmbeddedResource(HalEmbeddedWrapper.wrap(shipment)
+                        .withLinks(orderAssembler.buildSelfLinkForEmbedded(shipment, exchange)));
+    }
 }
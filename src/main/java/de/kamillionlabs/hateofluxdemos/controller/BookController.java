@@ -12,23 +12,45 @@ import de.kamillionlabs.hateoflux.http.HalMultiResourceResponse;
 import de.kamillionlabs.hateoflux.http.HalResourceResponse;
 import de.kamillionlabs.hateoflux.model.hal.HalEmbeddedWrapper;
 import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalPageInfo;
 import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.IanaRelation;
 import de.kamillionlabs.hateoflux.model.link.Link;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookBatchResultDTO;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.link.LinkTemplates;
+import de.kamillionlabs.hateofluxdemos.service.BookRejectedException;
 import de.kamillionlabs.hateofluxdemos.service.BookService;
+import de.kamillionlabs.hateofluxdemos.service.Revisioned;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * @author Younes El Ouarti
  */
 @RestController
 public class BookController {
 
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    // Strong ETag of a book as created by bookETag(long, boolean), group 1 is the revision
+    private static final Pattern BOOK_ETAG = Pattern.compile("\"(\\d+)(?:-author)?\"");
+
     @Autowired
     private BookService bookService;
 
@@ -38,59 +60,108 @@ public class BookController {
     }
 
 
+    /**
+     * Adds the book. A book without id, title or author or with a title the author already has is rejected with a 400.
+     */
     @PostMapping("/book")
     public HalResourceResponse<BookDTO, AuthorDTO> createBook(@RequestBody BookDTO book) {
+        if (book.getId() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book must have an id");
+        }
+        if (book.getTitle() == null || book.getAuthor() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book must have a title and an author");
+        }
         Mono<HalResourceWrapper<BookDTO, AuthorDTO>> createdBook = bookService.addBook(book)
+                .onErrorMap(BookRejectedException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e))
                 .map(BookController::wrapBook);
 
         return HalResourceResponse.created(createdBook);
     }
 
 
+    /**
+     * Bulk import of books sent as newline delimited JSON. The books are read with backpressure and added in batches
+     * of {@code batchSize}. For every batch one result is streamed back as soon as the batch is stored.
+     */
+    @PostMapping(value = "/books", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public HalMultiResourceResponse<BookBatchResultDTO, Void> createBooks(
+            @RequestBody Flux<BookDTO> books,
+            @RequestParam(name = "batchSize", defaultValue = "" + DEFAULT_BATCH_SIZE) int batchSize) {
+
+        int boundedBatchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        Flux<HalResourceWrapper<BookBatchResultDTO, Void>> batchResults = books.buffer(boundedBatchSize)
+                .index()
+                .concatMap(batch -> bookService.addBooks(batch.getT2())
+                        .map(result -> result.toBuilder().batch(batch.getT1()).build()))
+                .map(result -> HalResourceWrapper.wrap(result)
+                        .withLinks(Link.linkAsSelfOf("/books")));
+
+        return HalMultiResourceResponse.of(batchResults, HttpStatus.OK);
+    }
+
+
+    /**
+     * Returns the book with a strong ETag. If the client already has the current revision ({@code If-None-Match}),
+     * the response is a 304 without body, before the author is looked up or anything is wrapped.
+     */
     @GetMapping("/book/{id}")
     public HalResourceResponse<BookDTO, AuthorDTO> getBook(
             @PathVariable("id") int bookId,
-            @RequestParam(name = "withAuthor", defaultValue = "false") boolean withAuthor) {
-
-        Mono<BookDTO> bookMono = bookService.getBookById(bookId);
-
-        // Conditionally retrieve the author only if requested
-        Mono<AuthorDTO> authorMono = withAuthor
-                ? bookMono.flatMap(book -> bookService.getAuthorByName(book.getAuthor()))
-                : Mono.empty();
-
-        // Determine the status code based on the presence of BookDTO and (optionally) AuthorDTO
-        Mono<HttpStatus> statusMono = bookMono.hasElement().flatMap(bookExists -> {
-            if (!bookExists) {
-                // No book found
-                return Mono.just(HttpStatus.NOT_FOUND);
-            } else if (!withAuthor) {
-                // BookDTO exists and author not requested: always 200
-                return Mono.just(HttpStatus.OK);
-            } else {
-                // BookDTO exists and author was requested: check author presence
-                return authorMono.hasElement().map(authorExists ->
-                        authorExists ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT
-                );
-            }
-        });
-
-        // Construct the body (HalResourceWrapper)
-        Mono<HalResourceWrapper<BookDTO, AuthorDTO>> bodyMono = bookMono.flatMap(book -> {
-            Mono<HalResourceWrapper<BookDTO, AuthorDTO>> bookWithoutAuthor = Mono.just(wrapBook(book));
-            if (!withAuthor) {
-                return bookWithoutAuthor;
-            } else {
-                // With author requested
-                return authorMono
-                        .map(author -> wrapBook(book, author))
-                        .switchIfEmpty(bookWithoutAuthor);
-            }
-        });
-        return HalResourceResponse.of(bodyMono, statusMono)
+            @RequestParam(name = "withAuthor", defaultValue = "false") boolean withAuthor,
+            ServerWebExchange exchange) {
+
+        // The author is looked up only if requested and resolved together with the book, so that status and body
+        // share one lookup
+        Mono<BookWithAuthor> bookWithAuthor = bookService.getRevisionedBookById(bookId)
+                .flatMap(revisioned -> {
+                    BookDTO book = revisioned.value();
+                    if (exchange.checkNotModified(bookETag(revisioned.revision(), withAuthor))) {
+                        return Mono.just(BookWithAuthor.NOT_MODIFIED);
+                    } else if (!withAuthor) {
+                        return Mono.just(new BookWithAuthor(book, null));
+                    }
+                    return bookService.getAuthorByName(book.getAuthor())
+                            .map(author -> new BookWithAuthor(book, author))
+                            .defaultIfEmpty(new BookWithAuthor(book, null));
+                });
+
+        return SingleSubscriptionResponses.resourceResponse(bookWithAuthor,
+                        BookWithAuthor::wrap,
+                        result -> {
+                            if (result == BookWithAuthor.NOT_MODIFIED) {
+                                return HttpStatus.NOT_MODIFIED;
+                            }
+                            // BookDTO exists: 200, unless the author was requested but couldn't be found
+                            return withAuthor && result.author() == null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+                        },
+                        HttpStatus.NOT_FOUND)
                 .withContentType("application/hal+json");
     }
 
+    private record BookWithAuthor(BookDTO book, AuthorDTO author) {
+
+        static final BookWithAuthor NOT_MODIFIED = new BookWithAuthor(null, null);
+
+        HalResourceWrapper<BookDTO, AuthorDTO> wrap() {
+            if (book == null) {
+                return null;
+            }
+            return author == null ? wrapBook(book) : wrapBook(book, author);
+        }
+    }
+
+    /**
+     * The representation differs with and without embedded author, so both get their own ETag.
+     */
+    private static String bookETag(long revision, boolean withAuthor) {
+        return withAuthor ? "\"" + revision + "-author\"" : eTag(revision);
+    }
+
+    private static String eTag(long revision) {
+        return "\"" + revision + "\"";
+    }
+
 
     private static HalResourceWrapper<BookDTO, AuthorDTO> wrapBook(BookDTO b) {
         return HalResourceWrapper.wrap(b)
@@ -105,18 +176,80 @@ public class BookController {
                         .withLinks(Link.linkAsSelfOf("/book/" + b.getId() + "/author")));
     }
 
+    /**
+     * Returns the books of the author ordered by id, one page at a time. Pages are addressed by an opaque cursor
+     * rather than a page number, i.e. the {@code next} link continues after the last book of the current page. Only
+     * the size of the {@link Pageable} is used.
+     * <p>
+     * The response has a strong ETag that changes whenever a book of the author is added or updated.
+     * {@code If-None-Match} is answered with a 304 before any book is read.
+     */
     @GetMapping("/books")
-    public HalListResponse<BookDTO, AuthorDTO> getAllBooksOfAuthor(@RequestParam String authorName) {
-        Flux<HalResourceWrapper<BookDTO, AuthorDTO>> allBooks = bookService.getAllBooksByAuthorName(authorName)
-                .map(BookController::wrapBook);
+    public HalListResponse<BookDTO, AuthorDTO> getAllBooksOfAuthor(
+            @RequestParam String authorName,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            Pageable pageable,
+            ServerWebExchange exchange) {
 
-        // Empty Flux will result in an empty HalListWrapper with a self link, not an empty Mono
-        Mono<HalListWrapper<BookDTO, AuthorDTO>> allBooksAsList = wrapBooks(authorName, allBooks);
+        KeysetScrollPosition position = BookCursor.decode(cursor);
+        Mono<BookList> books = bookService.getRevisionOfBooksByAuthorName(authorName)
+                .flatMap(revision -> exchange.checkNotModified(eTag(revision))
+                        ? Mono.just(BookList.NOT_MODIFIED)
+                        : bookService.getBooksByAuthorName(authorName, position, pageable.getPageSize())
+                        .map(window -> new BookList(window.stream()
+                                .map(BookController::wrapBook)
+                                .toList(),
+                                window.hasNext()
+                                        ? BookCursor.encode((KeysetScrollPosition) window.positionAt(window.size() - 1))
+                                        : null)))
+                // Unknown author
+                .defaultIfEmpty(new BookList(List.of(), null));
 
-        Mono<HttpStatus> status = allBooks.hasElements()
-                .map(exists -> exists ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+        // No books will result in an empty HalListWrapper with a self link, not an empty Mono
+        return SingleSubscriptionResponses.listResponse(books,
+                result -> result == BookList.NOT_MODIFIED
+                        ? null
+                        : wrapBooks(authorName, cursor, pageable.getPageSize(), result),
+                result -> {
+                    if (result == BookList.NOT_MODIFIED) {
+                        return HttpStatus.NOT_MODIFIED;
+                    }
+                    // Only the first page is empty if the author has no books
+                    return result.books().isEmpty() && cursor == null ? HttpStatus.NOT_FOUND : HttpStatus.OK;
+                },
+                HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * @param nextCursor
+     *         cursor of the next page or {@code null} if this is the last page
+     */
+    private record BookList(List<HalResourceWrapper<BookDTO, AuthorDTO>> books, String nextCursor) {
 
-        return HalListResponse.of(allBooksAsList, status);
+        static final BookList NOT_MODIFIED = new BookList(null, null);
+    }
+
+    /**
+     * Searches books by words or word prefixes of their title and author name. Results are ranked by relevance.
+     */
+    @GetMapping("/books/search")
+    public HalListResponse<BookDTO, AuthorDTO> searchBooks(@RequestParam("q") String query, Pageable pageable) {
+        Mono<HalListWrapper<BookDTO, AuthorDTO>> searchResult = bookService.searchBooks(query, pageable)
+                .map(page -> {
+                    HalPageInfo pageInfo = HalPageInfo.assembleWithOffset(pageable.getPageSize(),
+                            page.getTotalElements(), pageable.getOffset());
+                    List<HalResourceWrapper<BookDTO, AuthorDTO>> books = page.getContent().stream()
+                            .map(BookController::wrapBook)
+                            .toList();
+                    HalListWrapper<BookDTO, AuthorDTO> result = books.isEmpty()
+                            ? HalListWrapper.empty(BookDTO.class)
+                            : HalListWrapper.wrap(books);
+                    return result.withLinks(Link.of(LinkTemplates.BOOK_SEARCH.expand(query))
+                                    .deriveNavigationLinks(pageInfo, List.of()))
+                            .withPageInfo(pageInfo);
+                });
+
+        return HalListResponse.of(searchResult, Mono.just(HttpStatus.OK));
     }
 
     @GetMapping("/books-as-stream")
@@ -126,29 +259,73 @@ public class BookController {
         return HalMultiResourceResponse.of(allBooks, HttpStatus.OK);
     }
 
-    private static Mono<HalListWrapper<BookDTO, AuthorDTO>> wrapBooks(String authorName,
-                                                                      Flux<HalResourceWrapper<BookDTO, AuthorDTO>> allBooks) {
+    private static HalListWrapper<BookDTO, AuthorDTO> wrapBooks(String authorName, String cursor, int pageSize,
+                                                                BookList bookList) {
         //This is done automatically when assemblers are used
-        return allBooks.collectList()
-                .map(list -> {
-                    HalListWrapper<BookDTO, AuthorDTO> result;
-                    if (list.isEmpty()) {
-                        result = HalListWrapper.empty(BookDTO.class);
-                    } else {
-                        result = HalListWrapper.wrap(list);
-                    }
-                    return result.withLinks(Link.linkAsSelfOf("/books{?authorName}").expand(authorName));
-                });
+        HalListWrapper<BookDTO, AuthorDTO> result;
+        if (bookList.books().isEmpty()) {
+            result = HalListWrapper.empty(BookDTO.class);
+        } else {
+            result = HalListWrapper.wrap(bookList.books());
+        }
+        List<Link> links = new ArrayList<>();
+        if (cursor == null) {
+            links.add(Link.linkAsSelfOf(LinkTemplates.BOOKS_OF_AUTHOR.expand(authorName)));
+        } else {
+            links.add(Link.linkAsSelfOf(LinkTemplates.BOOKS_OF_AUTHOR_PAGE.expand(authorName, cursor, pageSize)));
+        }
+        if (bookList.nextCursor() != null) {
+            links.add(Link.of(LinkTemplates.BOOKS_OF_AUTHOR_PAGE.expand(authorName, bookList.nextCursor(), pageSize))
+                    .withRel(IanaRelation.NEXT));
+        }
+        return result.withLinks(links.toArray(Link[]::new));
     }
 
+    /**
+     * Updates the book. With {@code If-Match}, the book is only updated if it still has one of the given ETags,
+     * otherwise the response is a 412. The check is atomic with the update, so concurrent writers can't overwrite
+     * each other's changes unnoticed.
+     */
     @PutMapping("/book")
-    public HalResourceResponse<BookDTO, AuthorDTO> updateBook(@RequestBody BookDTO book) {
-        Mono<HalResourceWrapper<BookDTO, AuthorDTO>> updateBook = bookService.updateBook(book)
-                .map(BookController::wrapBook);
+    public HalResourceResponse<BookDTO, AuthorDTO> updateBook(
+            @RequestBody BookDTO book,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            ServerWebExchange exchange) {
 
-        Mono<HttpStatus> statusCode = updateBook.hasElement()
-                .map(exists -> exists ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+        Mono<Optional<Revisioned<BookDTO>>> updateBook = bookService.updateBook(book, expectedRevisions(ifMatch))
+                .doOnNext(updated -> exchange.getResponse().getHeaders()
+                        .setETag(bookETag(updated.revision(), false)))
+                .map(Optional::of)
+                .onErrorResume(ConcurrentModificationException.class, e -> Mono.just(Optional.empty()));
 
-        return HalResourceResponse.of(updateBook, statusCode);
+        return SingleSubscriptionResponses.resourceResponse(updateBook,
+                updated -> updated.map(u -> wrapBook(u.value())).orElse(null),
+                updated -> updated.isPresent() ? HttpStatus.OK : HttpStatus.PRECONDITION_FAILED,
+                HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Both representations of a book carry its revision, so an ETag obtained with {@code ?withAuthor=true} is just as
+     * valid a precondition as one obtained without.
+     *
+     * @return the revisions named by the {@code If-Match} header or {@code null} if any revision matches
+     */
+    private static Set<Long> expectedRevisions(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        Set<Long> revisions = new HashSet<>();
+        for (String eTag : ifMatch.split(",")) {
+            String tag = eTag.strip();
+            if (tag.equals("*")) {
+                return null;
+            }
+            // If-Match uses the strong comparison, so weak ETags (W/"...") never match
+            Matcher bookETag = BOOK_ETAG.matcher(tag);
+            if (bookETag.matches()) {
+                revisions.add(Long.parseLong(bookETag.group(1)));
+            }
+        }
+        return revisions;
     }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.controller;
+
+import de.kamillionlabs.hateofluxdemos.service.BookService;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Converts the keyset positions of {@link BookService#getBooksByAuthorName} to opaque, URL safe cursors and back.
+ * Clients are not supposed to build or interpret cursors themselves, they only follow {@code next} links.
+ */
+final class BookCursor {
+
+    private static final int CURSOR_LENGTH = 2 * Integer.BYTES;
+
+    private BookCursor() {
+    }
+
+    static String encode(KeysetScrollPosition position) {
+        Map<String, Object> keys = position.getKeys();
+        ByteBuffer buffer = ByteBuffer.allocate(CURSOR_LENGTH)
+                .putInt((Integer) keys.get(BookService.KEYSET_ID))
+                .putInt((Integer) keys.get(BookService.KEYSET_ROW));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @param cursor
+     *         cursor from a {@code next} link or {@code null} for the first page
+     * @throws ResponseStatusException
+     *         with status 400 if the cursor wasn't issued by {@link #encode(KeysetScrollPosition)}
+     */
+    static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+        if (bytes.length != CURSOR_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return ScrollPosition.forward(Map.of(
+                BookService.KEYSET_ID, buffer.getInt(),
+                BookService.KEYSET_ROW, buffer.getInt()));
+    }
+}
@@ -16,19 +16,25 @@ import de.kamillionlabs.hateoflux.model.link.Link;
 import de.kamillionlabs.hateoflux.utility.SortCriteria;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.encoding.HalListStreamWriter;
+import de.kamillionlabs.hateofluxdemos.link.BaseUrl;
+import de.kamillionlabs.hateofluxdemos.link.LinkTemplates;
+import de.kamillionlabs.hateofluxdemos.link.RouteTable;
 import de.kamillionlabs.hateofluxdemos.service.OrderService;
 import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Method;
 import java.util.List;
 
-import static de.kamillionlabs.hateoflux.linkbuilder.SpringControllerLinkBuilder.linkTo;
 import static de.kamillionlabs.hateoflux.utility.SortDirection.ASCENDING;
 import static de.kamillionlabs.hateoflux.utility.SortDirection.DESCENDING;
 
@@ -41,12 +47,20 @@ import static de.kamillionlabs.hateoflux.utility.SortDirection.DESCENDING;
 @AllArgsConstructor
 public class ManualOrderController {
 
+    private static final Method GET_SHIPMENT = RouteTable.methodOf(ShipmentController.class, c -> c.getShipment(0));
+
     @Autowired
     private OrderService orderService;
 
     @Autowired
     private ShipmentService shipmentService;
 
+    @Autowired
+    private RouteTable routeTable;
+
+    @Autowired
+    private HalListStreamWriter halListStreamWriter;
+
     /**
      * Cookbook example: Creating a HalResourceWrapper without an Embedded Resource
      */
@@ -57,10 +71,10 @@ public class ManualOrderController {
 
         return orderMono.map(order -> HalResourceWrapper.wrap(order)                         // 3
                 .withLinks(                                                                  // 4
-                        Link.of("orders/{orderId}/shipment")                                 // 5
-                                .expand(orderId)                                             // 6
+                        Link.of(LinkTemplates.ORDER_SHIPMENT                                 // 5
+                                .expand(orderId))                                            // 6
                                 .withRel("shipment"),                                        // 7
-                        Link.linkAsSelfOf("orders/" + orderId)                               // 8
+                        Link.linkAsSelfOf(LinkTemplates.ORDER.expand(orderId))               // 8
                 ));
     }
 
@@ -74,11 +88,11 @@ public class ManualOrderController {
         return orderMono.zipWith(shipmentMono, (order, shipment) ->
                 HalResourceWrapper.wrap(order)                                                                           //  4
                         .withLinks(                                                                                      //  5
-                                Link.linkAsSelfOf("orders/" + orderId))                                                  //  6
+                                Link.linkAsSelfOf(LinkTemplates.ORDER.expand(orderId)))                                  //  6
                         .withEmbeddedResource(                                                                           //  7
                                 HalEmbeddedWrapper.wrap(shipment)                                                        //  8
                                         .withLinks(                                                                      //  9
-                                                linkTo(ShipmentController.class, c -> c.getShipment(shipment.getId()))   // 10
+                                                routeTable.linkTo(GET_SHIPMENT, shipment.getId())                        // 10
                                                         .withRel(IanaRelation.SELF)                                      // 11
                                                         .withHreflang("en-US")                                           // 12
                                         )
@@ -106,18 +120,47 @@ public class ManualOrderController {
         return ordersFlux.map(
                         order -> HalResourceWrapper.wrap(order)                                                       //  8
                                 .withLinks(
-                                        Link.linkAsSelfOf("orders/" + order.getId())
-                                                .prependBaseUrl(exchange)))
+                                        Link.linkAsSelfOf(LinkTemplates.ORDER
+                                                .expandWithPrefix(BaseUrl.prefixOf(exchange), order.getId()))))
                 .collectList()                                                                                        //  9
                 .zipWith(totalElementsMono,(ordersList, totalElements) -> {                                           // 10
                             HalPageInfo pageInfo = HalPageInfo.assembleWithOffset(pageSize, totalElements, offset);   // 11
                             return HalListWrapper.wrap(ordersList)                                                    // 12
-                                    .withLinks(Link.of("orders{?userId,someDifferentFilter}")                         // 13
-                                            .expand(userId)                                                           // 14
-                                            .prependBaseUrl(exchange)                                                 // 15
+                                    .withLinks(BaseUrl.link(LinkTemplates.ORDERS                                      // 13
+                                                            .expand(userId),                                          // 14
+                                                    exchange)                                                         // 15
                                             .deriveNavigationLinks(pageInfo, sortCriteria))                           // 16
                                     .withPageInfo(pageInfo);                                                          // 17
                         }
                 );
     }
+
+    /**
+     * Same as {@link #getOrdersManualBuilt(Long, Pageable, ServerWebExchange)}, but every order is written as soon as
+     * it is read instead of collecting the page first. Links and page info follow the orders. The base URL is resolved
+     * once and the links are expanded from the precompiled {@link LinkTemplates}.
+     */
+    @GetMapping(value = "/orders-with-pagination/streamed", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> streamOrdersManualBuilt(@RequestParam Long userId,
+                                                    Pageable pageable,
+                                                    ServerWebExchange exchange) {
+        int pageSize = pageable.getPageSize();
+        long offset = pageable.getOffset();
+        List<SortCriteria> sortCriteria = pageable.getSort().get()
+                .map(o -> SortCriteria.by(o.getProperty(), o.getDirection().isAscending() ? ASCENDING : DESCENDING))
+                .toList();
+
+        String baseUrl = BaseUrl.prefixOf(exchange);
+        Flux<HalResourceWrapper<OrderDTO, Void>> orders = orderService.getOrdersByUserId(userId, pageable)
+                .map(order -> HalResourceWrapper.wrap(order)
+                        .withLinks(Link.linkAsSelfOf(LinkTemplates.ORDER.expandWithPrefix(baseUrl, order.getId()))));
+        Mono<HalListStreamWriter.Trailer> trailer = orderService.countAllOrdersByUserId(userId)
+                .map(totalElements -> {
+                    HalPageInfo pageInfo = HalPageInfo.assembleWithOffset(pageSize, totalElements, offset);
+                    Link selfLink = Link.of(LinkTemplates.ORDERS.expandWithPrefix(baseUrl, userId));
+                    return new HalListStreamWriter.Trailer(selfLink.deriveNavigationLinks(pageInfo, sortCriteria),
+                            pageInfo);
+                });
+        return halListStreamWriter.write(OrderDTO.class, orders, trailer, exchange.getResponse().bufferFactory());
+    }
 }
\ No newline at end of file
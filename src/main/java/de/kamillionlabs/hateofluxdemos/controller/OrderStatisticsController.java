@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.controller;
+
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.Link;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderStatisticsDTO;
+import de.kamillionlabs.hateofluxdemos.service.OrderService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Revenue, average order value and the number of orders per status, either over all orders or per user.
+ */
+@RestController
+@AllArgsConstructor
+public class OrderStatisticsController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @GetMapping("/orders/stats")
+    public Mono<HalResourceWrapper<OrderStatisticsDTO, Void>> getStatistics() {
+        return orderService.getStatistics(null)
+                .map(statistics -> HalResourceWrapper.wrap(statistics)
+                        .withLinks(Link.linkAsSelfOf("/orders/stats")));
+    }
+
+    @GetMapping("/users/{userId}/orders/stats")
+    public Mono<HalResourceWrapper<OrderStatisticsDTO, Void>> getStatisticsOfUser(@PathVariable long userId) {
+        return orderService.getStatistics(userId)
+                .map(statistics -> HalResourceWrapper.wrap(statistics)
+                        .withLinks(
+                                Link.linkAsSelfOf("/users/{userId}/orders/stats").expand(userId),
+                                Link.of("/orders/stats").withRel("all")));
+    }
+}
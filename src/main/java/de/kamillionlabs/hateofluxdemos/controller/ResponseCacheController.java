@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.controller;
+
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.Link;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ResponseCacheStatsDTO;
+import de.kamillionlabs.hateofluxdemos.encoding.HalResponseCache;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reports how well the {@link HalResponseCache} performs.
+ */
+@RestController
+@AllArgsConstructor
+public class ResponseCacheController {
+
+    @Autowired
+    private HalResponseCache halResponseCache;
+
+    @GetMapping("/response-cache/stats")
+    public Mono<HalResourceWrapper<ResponseCacheStatsDTO, Void>> getStats() {
+        return Mono.fromSupplier(() -> HalResourceWrapper.wrap(halResponseCache.getStats())
+                .withLinks(Link.linkAsSelfOf("/response-cache/stats")));
+    }
+}
@@ -8,17 +8,30 @@
 
 package de.kamillionlabs.hateofluxdemos.controller;
 
+import de.kamillionlabs.hateoflux.http.HalResourceResponse;
 import de.kamillionlabs.hateoflux.linkbuilder.SpringControllerLinkBuilder;
+import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
 import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.Link;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
- * Controller only defined to show how {@link SpringControllerLinkBuilder} can construct links.
+ * Serves shipments. Also used to show how {@link SpringControllerLinkBuilder} can construct links.
  *
  * @author Younes El Ouarti
  */
@@ -26,9 +39,82 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/shipment")
 public class ShipmentController {
 
+    @Autowired
+    private ShipmentService shipmentService;
+
     @GetMapping("/{id}")
     public Mono<HalResourceWrapper<ShipmentDTO, Void>> getShipment(@PathVariable int id) {
-        //This is just a stub for the SpringControllerLinkBuilder
-        return Mono.empty();
+        return shipmentService.getShipment(id)
+                .map(ShipmentController::wrapShipment);
+    }
+
+    /**
+     * Sets the status of the shipment, e.g. {@code In Transit}, and notifies the subscribers of its events.
+     */
+    @PutMapping(value = "/{id}/status", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public HalResourceResponse<ShipmentDTO, Void> updateShipmentStatus(@PathVariable int id,
+                                                                      @RequestBody String status) {
+        return SingleSubscriptionResponses.resourceResponse(
+                shipmentService.updateShipmentStatus(id, status.strip()).map(ShipmentController::wrapShipment),
+                HttpStatus.OK, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Looks the shipment up by its tracking number, e.g. {@code /shipment/by-tracking/154-ASD-1238724}, and links the
+     * order it belongs to.
+     */
+    @GetMapping("/by-tracking/{number}")
+    public HalResourceResponse<ShipmentDTO, Void> getShipmentByTrackingNumber(@PathVariable String number) {
+        Mono<HalResourceWrapper<ShipmentDTO, Void>> shipment = shipmentService.getShipmentByTrackingNumber(number)
+                .flatMap(s -> shipmentService.getOrderIdOfShipment(s.getId())
+                        .map(orderId -> wrapShipment(s).withLinks(
+                                Link.of("/manual/order-no-embedded/{orderId}").expand(orderId).withRel("order"))));
+        return SingleSubscriptionResponses.resourceResponse(shipment, HttpStatus.OK, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Returns the shipments whose tracking number starts with {@code prefix}, ordered by tracking number.
+     */
+    @GetMapping("/by-tracking")
+    public Mono<HalListWrapper<ShipmentDTO, Void>> getShipmentsByTrackingNumberPrefix(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "20") int limit) {
+        return shipmentService.getShipmentsByTrackingNumberPrefix(prefix, limit)
+                .map(ShipmentController::wrapShipment)
+                .collectList()
+                .map(shipments -> {
+                    HalListWrapper<ShipmentDTO, Void> result = shipments.isEmpty()
+                            ? HalListWrapper.empty(ShipmentDTO.class)
+                            : HalListWrapper.wrap(shipments);
+                    return result.withLinks(Link.linkAsSelfOf("/shipment/by-tracking{?prefix,limit}")
+                            .expand(prefix, limit));
+                });
+    }
+
+    /**
+     * Returns the shipments with the given ids in one list, e.g. {@code /shipment?ids=3287,4125}. Unknown ids are
+     * skipped, i.e. the list may be shorter than {@code ids} or even empty.
+     */
+    @GetMapping
+    public Mono<HalListWrapper<ShipmentDTO, Void>> getShipments(@RequestParam List<Integer> ids) {
+        Link self = Link.linkAsSelfOf("/shipment?ids=" + ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+        return shipmentService.getShipments(ids)
+                .map(ShipmentController::wrapShipment)
+                .collectList()
+                .map(shipments -> {
+                    HalListWrapper<ShipmentDTO, Void> result = shipments.isEmpty()
+                            ? HalListWrapper.empty(ShipmentDTO.class)
+                            : HalListWrapper.wrap(shipments);
+                    return result.withLinks(self);
+                });
+    }
+
+    static HalResourceWrapper<ShipmentDTO, Void> wrapShipment(ShipmentDTO shipment) {
+        return HalResourceWrapper.wrap(shipment)
+                .withLinks(
+                        Link.linkAsSelfOf("/shipment/" + shipment.getId()),
+                        Link.of("/shipment/" + shipment.getId() + "/events").withRel("events"));
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.controller;
+
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Pushes shipment status changes as server-sent events, so that clients don't have to poll for them. Every event
+ * carries the updated shipment. Events are only sent for changes after the subscription; a client that reads slower
+ * than changes occur receives the latest state rather than every intermediate one.
+ */
+@RestController
+@AllArgsConstructor
+public class ShipmentEventController {
+
+    private static final String STATUS_CHANGED = "status-changed";
+
+    @Autowired
+    private ShipmentService shipmentService;
+
+    @GetMapping(value = "/shipment/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<HalResourceWrapper<ShipmentDTO, Void>>> getShipmentEvents(@PathVariable int id) {
+        return toEvents(shipmentService.getStatusChanges(id));
+    }
+
+    @GetMapping(value = "/shipments/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<HalResourceWrapper<ShipmentDTO, Void>>> getShipmentEventsOfOrder(
+            @RequestParam int orderId) {
+        return toEvents(shipmentService.getStatusChangesOfOrder(orderId));
+    }
+
+    private static Flux<ServerSentEvent<HalResourceWrapper<ShipmentDTO, Void>>> toEvents(Flux<ShipmentDTO> changes) {
+        return changes.map(shipment -> ServerSentEvent.builder(ShipmentController.wrapShipment(shipment))
+                .event(STATUS_CHANGED)
+                .build());
+    }
+}
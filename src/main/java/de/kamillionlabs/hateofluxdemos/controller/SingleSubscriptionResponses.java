@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.controller;
+
+import de.kamillionlabs.hateoflux.http.HalListResponse;
+import de.kamillionlabs.hateoflux.http.HalResourceResponse;
+import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Builds responses whose status and body are both derived from one subscription to the source.
+ * <p>
+ * {@link HalResourceResponse} and {@link HalListResponse} subscribe to the body and to the status separately. If both
+ * are built from the same service call, e.g. with {@code hasElement()} for the status, the call is executed once per
+ * subscription, i.e. lookups run twice and mutations are applied twice. The methods here cache the outcome of the
+ * source, including an empty completion, so that it is only executed once per request.
+ */
+public final class SingleSubscriptionResponses {
+
+    private SingleSubscriptionResponses() {
+    }
+
+    /**
+     * @param source
+     *         the result of the request, e.g. a looked up book together with its author
+     * @param toBody
+     *         builds the body from the result; may return {@code null} for responses without body, e.g. a 304
+     * @param toStatus
+     *         determines the status from the result
+     * @param statusIfEmpty
+     *         status used if {@code source} completes empty; the body is empty then as well
+     */
+    public static <T, ResourceT, EmbeddedT> HalResourceResponse<ResourceT, EmbeddedT> resourceResponse(
+            Mono<T> source,
+            Function<? super T, HalResourceWrapper<ResourceT, EmbeddedT>> toBody,
+            Function<? super T, HttpStatus> toStatus,
+            HttpStatus statusIfEmpty) {
+        // cache() replays the value, the empty completion or the error to every later subscriber
+        Mono<T> result = source.cache();
+        Mono<HalResourceWrapper<ResourceT, EmbeddedT>> body = result.mapNotNull(toBody);
+        Mono<HttpStatus> status = result.map(toStatus).defaultIfEmpty(statusIfEmpty);
+        return HalResourceResponse.of(body, status);
+    }
+
+    /**
+     * Shorthand for {@link #resourceResponse(Mono, Function, Function, HttpStatus)} with a fixed status if the body
+     * is present.
+     */
+    public static <ResourceT, EmbeddedT> HalResourceResponse<ResourceT, EmbeddedT> resourceResponse(
+            Mono<HalResourceWrapper<ResourceT, EmbeddedT>> body,
+            HttpStatus statusIfPresent,
+            HttpStatus statusIfEmpty) {
+        return resourceResponse(body, Function.identity(), b -> statusIfPresent, statusIfEmpty);
+    }
+
+    /**
+     * List counterpart of {@link #resourceResponse(Mono, Function, Function, HttpStatus)}.
+     *
+     * @param source
+     *         the result of the request
+     * @param toBody
+     *         builds the list from the result; may return {@code null} for responses without body, e.g. a 304
+     * @param toStatus
+     *         determines the status from the result
+     * @param statusIfEmpty
+     *         status used if {@code source} completes empty; the body is empty then as well
+     */
+    public static <T, ResourceT, EmbeddedT> HalListResponse<ResourceT, EmbeddedT> listResponse(
+            Mono<T> source,
+            Function<? super T, HalListWrapper<ResourceT, EmbeddedT>> toBody,
+            Function<? super T, HttpStatus> toStatus,
+            HttpStatus statusIfEmpty) {
+        Mono<T> result = source.cache();
+        Mono<HalListWrapper<ResourceT, EmbeddedT>> body = result.mapNotNull(toBody);
+        Mono<HttpStatus> status = result.map(toStatus).defaultIfEmpty(statusIfEmpty);
+        return HalListResponse.of(body, status);
+    }
+
+    /**
+     * Collects {@code elements} once and derives the list and the status from the collected elements.
+     *
+     * @param elements
+     *         the elements of the list
+     * @param toBody
+     *         builds the list from the collected elements, also if there are none
+     * @param statusIfPresent
+     *         status if there is at least one element
+     * @param statusIfEmpty
+     *         status if there are no elements
+     */
+    public static <T, ResourceT, EmbeddedT> HalListResponse<ResourceT, EmbeddedT> listResponse(
+            Flux<T> elements,
+            Function<? super List<T>, HalListWrapper<ResourceT, EmbeddedT>> toBody,
+            HttpStatus statusIfPresent,
+            HttpStatus statusIfEmpty) {
+        return listResponse(elements.collectList(), toBody,
+                list -> list.isEmpty() ? statusIfEmpty : statusIfPresent, statusIfEmpty);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.dataset;
+
+import de.kamillionlabs.hateoflux.utility.pair.PairList;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates synthetic users, orders, shipments, authors and books.
+ * <p>
+ * The output only depends on the seed and the requested sizes: every record draws its values from its own random
+ * generator, which is derived from the seed, the kind of record and its index. Records are therefore generated in
+ * parallel, yet the same seed always results in the same dataset.
+ * <p>
+ * Activity is skewed like in production: users place orders and authors write books following a Zipf distribution,
+ * i.e. a few users and authors account for most of the records. Generated ids start at {@link #FIRST_ID} and thus
+ * don't collide with the sample data of the services.
+ */
+public final class SyntheticDataGenerator {
+
+    public static final int FIRST_ID = 100_000;
+
+    private static final long ORDERS = 1;
+    private static final long SHIPMENTS = 2;
+    private static final long AUTHORS = 3;
+    private static final long BOOKS = 4;
+
+    private static final String[] ORDER_STATUSES = {"Created", "Processing", "Delivered", "Delivered", "Delivered",
+            "Returned"};
+    private static final String[] CARRIERS = {"UPS", "FedEx", "DHL", "USPS"};
+    private static final String[] CARRIER_CODES = {"UPS", "FDX", "DHL", "USP"};
+    private static final String[] SHIPMENT_STATUSES = {"Pending", "Processing", "Shipped", "In Transit",
+            "Out for Delivery", "Delivered", "Completed", "Delayed", "Cancelled"};
+    private static final String[] GENRES = {"Programming", "Software Design", "Software Engineering", "Databases",
+            "Distributed Systems", "Algorithms"};
+
+    private final long seed;
+    private final double zipfExponent;
+
+    /**
+     * @param zipfExponent
+     *         skew of the activity of users and authors; {@code 0} means uniform, the larger, the more skewed
+     */
+    public SyntheticDataGenerator(long seed, double zipfExponent) {
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("Zipf exponent cannot be negative");
+        }
+        this.seed = seed;
+        this.zipfExponent = zipfExponent;
+    }
+
+    /**
+     * @return {@code count} orders of {@code users} users, whose ids start at {@link #FIRST_ID}
+     */
+    public List<OrderDTO> orders(int count, int users) {
+        double[] userDistribution = zipfDistribution(users);
+        return List.of(IntStream.range(0, count)
+                .parallel()
+                .mapToObj(i -> {
+                    SplittableRandom random = randomFor(ORDERS, i);
+                    return new OrderDTO(FIRST_ID + i,
+                            FIRST_ID + sample(userDistribution, random),
+                            random.nextInt(500, 50_000) / 100.0,
+                            ORDER_STATUSES[random.nextInt(ORDER_STATUSES.length)]);
+                })
+                .toArray(OrderDTO[]::new));
+    }
+
+    /**
+     * @param maxShipmentsPerOrder
+     *         every order gets between none and this many shipments, on average half of it
+     * @return the shipments keyed by the id of their order
+     */
+    public PairList<Integer, ShipmentDTO> shipments(List<OrderDTO> orders, int maxShipmentsPerOrder) {
+        ShipmentDTO[][] shipmentsByOrder = IntStream.range(0, orders.size())
+                .parallel()
+                .mapToObj(i -> {
+                    SplittableRandom random = randomFor(SHIPMENTS, i);
+                    ShipmentDTO[] shipments = new ShipmentDTO[random.nextInt(maxShipmentsPerOrder + 1)];
+                    for (int k = 0; k < shipments.length; k++) {
+                        int carrier = random.nextInt(CARRIERS.length);
+                        shipments[k] = new ShipmentDTO(FIRST_ID + i * maxShipmentsPerOrder + k,
+                                CARRIERS[carrier],
+                                String.format("%03d-%s-%07d", random.nextInt(100, 1000), CARRIER_CODES[carrier],
+                                        random.nextInt(10_000_000)),
+                                SHIPMENT_STATUSES[random.nextInt(SHIPMENT_STATUSES.length)]);
+                    }
+                    return shipments;
+                })
+                .toArray(ShipmentDTO[][]::new);
+
+        PairList<Integer, ShipmentDTO> shipments = new PairList<>();
+        for (int i = 0; i < shipmentsByOrder.length; i++) {
+            for (ShipmentDTO shipment : shipmentsByOrder[i]) {
+                shipments.add(orders.get(i).getId(), shipment);
+            }
+        }
+        return shipments;
+    }
+
+    public List<AuthorDTO> authors(int count) {
+        return List.of(IntStream.range(0, count)
+                .parallel()
+                .mapToObj(i -> {
+                    SplittableRandom random = randomFor(AUTHORS, i);
+                    return AuthorDTO.builder()
+                            .id(FIRST_ID + i)
+                            .name("Author " + (FIRST_ID + i))
+                            .birthDate(randomDate(random, 1930, 2000).toString())
+                            .mainGenre(GENRES[random.nextInt(GENRES.length)])
+                            .build();
+                })
+                .toArray(AuthorDTO[]::new));
+    }
+
+    /**
+     * @return {@code count} books with unique titles, written by {@code authors}
+     */
+    public List<BookDTO> books(int count, List<AuthorDTO> authors) {
+        double[] authorDistribution = zipfDistribution(authors.size());
+        return List.of(IntStream.range(0, count)
+                .parallel()
+                .mapToObj(i -> {
+                    SplittableRandom random = randomFor(BOOKS, i);
+                    return BookDTO.builder()
+                            .id(FIRST_ID + i)
+                            .title("Book " + (FIRST_ID + i))
+                            .author(authors.get(sample(authorDistribution, random)).getName())
+                            .isbn(String.format("978-%010d", random.nextLong(10_000_000_000L)))
+                            .publishedDate(randomDate(random, 1970, 2025).toString())
+                            .build();
+                })
+                .toArray(BookDTO[]::new));
+    }
+
+    private SplittableRandom randomFor(long kind, long index) {
+        return new SplittableRandom(mix(seed ^ mix(kind << 56 ^ index)));
+    }
+
+    /**
+     * @return the cumulative distribution over {@code n} ranks, where rank {@code k} has a weight of
+     * {@code 1 / (k + 1)^s}
+     */
+    private double[] zipfDistribution(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("There must be at least one user and one author");
+        }
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, zipfExponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, SplittableRandom random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(rank >= 0 ? rank : -rank - 1, cumulative.length - 1);
+    }
+
+    private static LocalDate randomDate(SplittableRandom random, int fromYear, int toYear) {
+        long from = LocalDate.of(fromYear, 1, 1).toEpochDay();
+        long to = LocalDate.of(toYear, 1, 1).toEpochDay();
+        return LocalDate.ofEpochDay(random.nextLong(from, to));
+    }
+
+    /**
+     * Finalizer of MurmurHash3; spreads neighbouring inputs across the whole range.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
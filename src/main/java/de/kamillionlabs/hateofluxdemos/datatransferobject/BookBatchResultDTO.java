@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.datatransferobject;
+
+import de.kamillionlabs.hateoflux.model.hal.Relation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of one batch of a bulk book import.
+ */
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Relation(itemRelation = "bookBatch", collectionRelation = "bookBatches")
+public class BookBatchResultDTO {
+    private long batch;
+    private int accepted;
+    private int rejected;
+    private List<String> errors;
+}
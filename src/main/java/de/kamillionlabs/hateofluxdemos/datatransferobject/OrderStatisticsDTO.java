@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.datatransferobject;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Aggregates over all orders or over the orders of one user.
+ */
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatisticsDTO {
+    /**
+     * {@code null} if the statistics cover all orders
+     */
+    private Long userId;
+    private long orderCount;
+    private double revenue;
+    private double averageOrderValue;
+    private Map<String, Long> ordersByStatus;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.datatransferobject;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder(toBuilder = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResponseCacheStatsDTO {
+    private long hitCount;
+    private long missCount;
+    /**
+     * Share of hits among all lookups, {@code 0} if there were none
+     */
+    private double hitRate;
+    /**
+     * Entries removed to stay within {@link #maxEntries}
+     */
+    private long evictionCount;
+    /**
+     * Entries removed because their resource changed
+     */
+    private long invalidationCount;
+    private int entryCount;
+    private int maxEntries;
+}
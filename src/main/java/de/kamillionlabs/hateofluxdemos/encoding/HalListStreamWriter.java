@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.encoding;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalPageInfo;
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.Link;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes a HAL list as its resources are emitted instead of collecting them into a {@link HalListWrapper} first.
+ * <p>
+ * The document is written in the order {@code _embedded}, {@code _links}, {@code page}, so that every resource is
+ * serialized into its own buffer and sent as soon as it is available. The time to the first byte doesn't depend on the
+ * slowest resource and memory doesn't grow with the page size. Links and page info, which usually depend on the total
+ * number of elements, are taken from a {@link Trailer} that is only subscribed to after the last resource. The result
+ * is the same JSON as that of the collected {@link HalListWrapper}.
+ * <p>
+ * Controllers return the written buffers as {@code Flux<DataBuffer>}. The buffers are allocated by the factory of the
+ * response, which pools them on Netty.
+ */
+@Component
+public class HalListStreamWriter {
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private static final byte[] END_OF_EMBEDDED = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private static final String EMBEDDED = "_embedded";
+
+    /**
+     * Links and page info of a list, written after its resources.
+     *
+     * @param links
+     *         links of the list, e.g. derived with {@link Link#deriveNavigationLinks(HalPageInfo, List)}
+     * @param pageInfo
+     *         page info of the list or {@code null} if the list isn't paged
+     */
+    public record Trailer(List<Link> links, HalPageInfo pageInfo) {
+    }
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Start of the document up to the opening bracket of the embedded list, per resource class
+     */
+    private final Map<Class<?>, byte[]> headers = new ConcurrentHashMap<>();
+
+    public HalListStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param resourceClass
+     *         class of the resources, which determines the relation of the embedded list
+     * @param resources
+     *         wrapped resources in the order they are written
+     * @param trailer
+     *         links and page info of the list. If empty, the list is written without them
+     * @param bufferFactory
+     *         factory of the response, usually {@code exchange.getResponse().bufferFactory()}
+     */
+    public <ResourceT, EmbeddedT> Flux<DataBuffer> write(Class<ResourceT> resourceClass,
+                                                         Flux<HalResourceWrapper<ResourceT, EmbeddedT>> resources,
+                                                         Mono<Trailer> trailer,
+                                                         DataBufferFactory bufferFactory) {
+        return Flux.concat(
+                Mono.fromSupplier(() -> bufferFactory.wrap(headers.computeIfAbsent(resourceClass, this::headerOf))),
+                resources.index()
+                        .map(resource -> write(bufferFactory, out -> {
+                            if (resource.getT1() > 0) {
+                                out.write(',');
+                            }
+                            objectMapper.writeValue(out, resource.getT2());
+                        })),
+                trailer.map(links -> write(bufferFactory, out -> writeTrailer(out, resourceClass, links)))
+                        .switchIfEmpty(Mono.fromSupplier(() -> write(bufferFactory, out -> {
+                            out.write(END_OF_EMBEDDED);
+                            out.write('}');
+                        }))));
+    }
+
+    private byte[] headerOf(Class<?> resourceClass) {
+        // The relation is resolved the same way as for a collected list
+        JsonNode embedded = objectMapper.valueToTree(HalListWrapper.empty(resourceClass)).path(EMBEDDED);
+        Iterator<String> relations = embedded.fieldNames();
+        if (!relations.hasNext()) {
+            throw new IllegalStateException("No list relation for " + resourceClass.getName());
+        }
+        try {
+            return ("{\"" + EMBEDDED + "\":{" + objectMapper.writeValueAsString(relations.next()) + ":[")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    private void writeTrailer(OutputStream out, Class<?> resourceClass, Trailer trailer) throws IOException {
+        // Serialized through an empty list, so that links and page info are written exactly like those of a collected
+        // list
+        HalListWrapper<?, ?> wrapper = HalListWrapper.empty(resourceClass)
+                .withLinks(trailer.links().toArray(Link[]::new));
+        if (trailer.pageInfo() != null) {
+            wrapper = wrapper.withPageInfo(trailer.pageInfo());
+        }
+        ObjectNode tree = objectMapper.valueToTree(wrapper);
+        tree.remove(EMBEDDED);
+        out.write(END_OF_EMBEDDED);
+        Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            out.write(',');
+            out.write(objectMapper.writeValueAsBytes(field.getKey()));
+            out.write(':');
+            out.write(objectMapper.writeValueAsBytes(field.getValue()));
+        }
+        out.write('}');
+    }
+
+    private interface Content {
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static DataBuffer write(DataBufferFactory bufferFactory, Content content) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        boolean written = false;
+        try {
+            OutputStream out = buffer.asOutputStream();
+            content.writeTo(out);
+            written = true;
+            return buffer;
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        } finally {
+            if (!written) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.encoding;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ResponseCacheStatsDTO;
+import de.kamillionlabs.hateofluxdemos.link.BaseUrl;
+import de.kamillionlabs.hateofluxdemos.service.BookChangeListener;
+import de.kamillionlabs.hateofluxdemos.service.BookService;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the encoded HAL JSON of single books ({@code /book/{id}}) and orders
+ * ({@code /manual/order-no-embedded/{id}}). A hit is written straight from the cached bytes, without running the
+ * controller, the wrapping or Jackson.
+ * <p>
+ * Entries are keyed by base URL, path and query, so every representation of a resource (e.g. with and without
+ * embedded author) is cached on its own. Only {@code 200} and {@code 206} responses are cached, together with their
+ * headers, and conditional requests are passed through so that they are still answered with {@code 304}. Books are
+ * invalidated by the {@link BookService} as part of every write; orders can't change once added. The cache holds at
+ * most {@code hateoflux-demos.response-cache.max-entries} entries and evicts the least recently used one first. A
+ * maximum of {@code 0} disables it.
+ */
+@Component
+public class HalResponseCache implements WebFilter, BookChangeListener {
+
+    private static final PathPattern BOOK = PathPatternParser.defaultInstance.parse("/book/{id}");
+
+    private static final PathPattern ORDER = PathPatternParser.defaultInstance.parse("/manual/order-no-embedded/{id}");
+
+    private static final String BOOK_RESOURCE = "book:";
+
+    private static final String ORDER_RESOURCE = "order:";
+
+    /**
+     * @param resource
+     *         the cached resource, e.g. {@code book:1}
+     */
+    private record Entry(String resource, HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private final int maxEntries;
+
+    // Guarded by this. In access order, so that the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByResource = new HashMap<>();
+
+    // Guarded by this. Advanced by every invalidation and remembered by every request when it starts
+    private long clock;
+    // Guarded by this. When each resource was last invalidated, so that a response rendered before that isn't cached
+    // after it. Responses of other resources are unaffected
+    private final Map<String, Long> invalidatedAt = new HashMap<>();
+    // Guarded by this. When an author was last changed, which every book depends on
+    private long authorInvalidatedAt;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public HalResponseCache(BookService bookService,
+                            @Value("${hateoflux-demos.response-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        bookService.addChangeListener(this);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String resource = maxEntries > 0 && request.getMethod() == HttpMethod.GET && !isConditional(request)
+                ? resourceOf(request)
+                : null;
+        if (resource == null) {
+            return chain.filter(exchange);
+        }
+
+        String rawQuery = request.getURI().getRawQuery();
+        String key = BaseUrl.prefixOf(exchange) + " " + request.getPath().value()
+                + (rawQuery == null ? "" : "?" + rawQuery);
+        Entry entry;
+        long requestTime;
+        synchronized (this) {
+            entry = entries.get(key);
+            requestTime = clock;
+        }
+
+        if (entry != null) {
+            hits.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(entry.status());
+            response.getHeaders().putAll(entry.headers());
+            response.getHeaders().setContentLength(entry.body().length);
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory()
+                    .wrap(ByteBuffer.wrap(entry.body()).asReadOnlyBuffer())));
+        }
+
+        misses.increment();
+        ServerHttpResponse cachingResponse = new ServerHttpResponseDecorator(exchange.getResponse()) {
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode() == null ? HttpStatus.OK : getStatusCode();
+                if (status.value() != HttpStatus.OK.value() && status.value() != HttpStatus.PARTIAL_CONTENT.value()) {
+                    return super.writeWith(body);
+                }
+                return super.writeWith(DataBufferUtils.join(body)
+                        .map(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            put(key, requestTime, new Entry(resource, status, cacheableHeadersOf(getHeaders()), bytes));
+                            return bufferFactory().wrap(bytes);
+                        }));
+            }
+        };
+        return chain.filter(exchange.mutate().response(cachingResponse).build());
+    }
+
+    @Override
+    public void bookChanged(int bookId) {
+        invalidate(BOOK_RESOURCE + bookId);
+    }
+
+    @Override
+    public synchronized void authorChanged(String authorName) {
+        // Any book may embed the author, so all of them are invalidated
+        authorInvalidatedAt = ++clock;
+        keysByResource.keySet().stream()
+                .filter(resource -> resource.startsWith(BOOK_RESOURCE))
+                .toList()
+                .forEach(this::invalidate);
+    }
+
+    public ResponseCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int entryCount;
+        synchronized (this) {
+            entryCount = entries.size();
+        }
+        return ResponseCacheStatsDTO.builder()
+                .hitCount(hitCount)
+                .missCount(missCount)
+                .hitRate(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount))
+                .evictionCount(evictions.sum())
+                .invalidationCount(invalidations.sum())
+                .entryCount(entryCount)
+                .maxEntries(maxEntries)
+                .build();
+    }
+
+    private synchronized void put(String key, long requestTime, Entry entry) {
+        if (invalidatedAt.getOrDefault(entry.resource(), 0L) > requestTime
+                || entry.resource().startsWith(BOOK_RESOURCE) && authorInvalidatedAt > requestTime) {
+            // The resource may have changed while the response was rendered
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous == null) {
+            keysByResource.computeIfAbsent(entry.resource(), resource -> new HashSet<>()).add(key);
+        }
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            removeKeyOfResource(evicted.getValue().resource(), evicted.getKey());
+            evictions.increment();
+        }
+    }
+
+    private synchronized void invalidate(String resource) {
+        invalidatedAt.put(resource, ++clock);
+        Set<String> keys = keysByResource.remove(resource);
+        if (keys != null) {
+            keys.forEach(entries::remove);
+            invalidations.add(keys.size());
+        }
+    }
+
+    private void removeKeyOfResource(String resource, String key) {
+        Set<String> keys = keysByResource.get(resource);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            keysByResource.remove(resource);
+        }
+    }
+
+    /**
+     * @return the cached resource the request addresses or {@code null} if it isn't cached
+     */
+    private static String resourceOf(ServerHttpRequest request) {
+        PathPattern.PathMatchInfo match = BOOK.matchAndExtract(request.getPath().pathWithinApplication());
+        String resource = BOOK_RESOURCE;
+        if (match == null) {
+            match = ORDER.matchAndExtract(request.getPath().pathWithinApplication());
+            resource = ORDER_RESOURCE;
+        }
+        if (match == null) {
+            return null;
+        }
+        try {
+            // Normalized, so that e.g. /book/01 is invalidated together with /book/1
+            return resource + Integer.parseInt(match.getUriVariables().get("id"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isConditional(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.containsKey(HttpHeaders.IF_NONE_MATCH) || headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    private static HttpHeaders cacheableHeadersOf(HttpHeaders headers) {
+        HttpHeaders cacheable = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                    && !name.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)) {
+                cacheable.addAll(name, values);
+            }
+        });
+        return cacheable;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateoflux.model.link.Link;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.URI;
+
+/**
+ * Resolves the base URL of a request once and caches it in the attributes of the exchange.
+ * <p>
+ * {@link Link#prependBaseUrl(ServerWebExchange)} derives the base URL from the request on every call. When a list is
+ * assembled, this happens for every resource and every embedded resource. {@link #link(String, ServerWebExchange)}
+ * produces the same hrefs, but only concatenates the cached prefix with the path.
+ */
+public final class BaseUrl {
+
+    private static final String PREFIX_ATTRIBUTE = BaseUrl.class.getName() + ".prefix";
+
+    private BaseUrl() {
+    }
+
+    /**
+     * @return the base URL of the request followed by a slash, e.g. {@code https://www.example.com/}, or an empty
+     * string if there is no exchange
+     */
+    public static String prefixOf(ServerWebExchange exchange) {
+        if (exchange == null) {
+            return "";
+        }
+        return (String) exchange.getAttributes().computeIfAbsent(PREFIX_ATTRIBUTE, key -> derivePrefix(exchange));
+    }
+
+    /**
+     * @param path
+     *         path relative to the base URL, e.g. {@code order/1234}
+     * @return a link with the base URL of the request prepended to {@code path}
+     */
+    public static Link link(String path, ServerWebExchange exchange) {
+        return Link.of(prefixOf(exchange) + path);
+    }
+
+    private static String derivePrefix(ServerWebExchange exchange) {
+        URI uri = exchange.getRequest().getURI();
+        StringBuilder prefix = new StringBuilder()
+                .append(uri.getScheme())
+                .append("://")
+                .append(uri.getHost());
+        if (uri.getPort() != -1) {
+            prefix.append(':').append(uri.getPort());
+        }
+        return prefix.append('/').toString();
+    }
+}
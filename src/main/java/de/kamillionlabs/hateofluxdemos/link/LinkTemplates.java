@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+/**
+ * Registry of the URI templates that are expanded on every request. The templates are compiled once when this class is
+ * loaded instead of being parsed by {@code Link.of(...).expand(...)} for every link.
+ */
+public final class LinkTemplates {
+
+    public static final UriTemplate ORDER = UriTemplate.compile("orders/{orderId}");
+
+    public static final UriTemplate ORDER_SHIPMENT = UriTemplate.compile("orders/{orderId}/shipment");
+
+    public static final UriTemplate ORDERS = UriTemplate.compile("orders{?userId,someDifferentFilter}");
+
+    public static final UriTemplate ASSEMBLED_ORDERS = UriTemplate.compile("order{?userId,someDifferentFilter}");
+
+    public static final UriTemplate BOOKS_OF_AUTHOR = UriTemplate.compile("/books{?authorName}");
+
+    public static final UriTemplate BOOKS_OF_AUTHOR_PAGE = UriTemplate.compile("/books{?authorName,cursor,size}");
+
+    public static final UriTemplate BOOK_SEARCH = UriTemplate.compile("/books/search{?q}");
+
+    private LinkTemplates() {
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateoflux.model.link.Link;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Links to controller methods, resolved from a table that is built once at startup by scanning the
+ * {@code @RestController}s for their request mappings.
+ * <p>
+ * {@code SpringControllerLinkBuilder.linkTo(...)} invokes the controller method on a proxy and reads its mapping
+ * annotations on every call. Here, every mapped method is compiled into a {@link UriTemplate} up front, with its path
+ * variables and request parameters as variables, and the table is keyed by the {@link Method}. The method is resolved
+ * once, e.g. into a constant, by invoking it on a proxy with {@link #methodOf(Class, Consumer)}, so building a link
+ * only expands the template:
+ * <pre>{@code
+ * static final Method GET_SHIPMENT = RouteTable.methodOf(ShipmentController.class, c -> c.getShipment(0));
+ *
+ * routeTable.linkTo(GET_SHIPMENT, 127) // "/shipment/127"
+ * }</pre>
+ * Arguments are given in the order of the method parameters; parameters that are neither path variables nor request
+ * parameters are ignored.
+ */
+@Component
+public class RouteTable {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    /**
+     * @param variableIndexes
+     *         index of the template variable for every method parameter, or {@code -1} if the parameter is not part of
+     *         the link
+     */
+    private record Route(UriTemplate template, int[] variableIndexes) {
+    }
+
+    private final Map<Method, Route> routes = new HashMap<>();
+
+    @Autowired
+    public RouteTable(ListableBeanFactory beanFactory) {
+        this(Arrays.stream(beanFactory.getBeanNamesForAnnotation(RestController.class))
+                .map(beanFactory::getType)
+                .filter(Objects::nonNull)
+                .map(ClassUtils::getUserClass)
+                .toArray(Class<?>[]::new));
+    }
+
+    private RouteTable(Class<?>[] controllers) {
+        for (Class<?> controller : controllers) {
+            String basePath = firstPathOf(AnnotatedElementUtils.findMergedAnnotation(controller, RequestMapping.class));
+            for (Method method : controller.getMethods()) {
+                RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+                if (mapping == null) {
+                    continue;
+                }
+                Route route = compile(basePath, mapping, method);
+                if (route != null) {
+                    routes.put(method, route);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a route table of the given controllers, e.g. for tests without an application context.
+     */
+    public static RouteTable of(Class<?>... controllers) {
+        return new RouteTable(controllers);
+    }
+
+    /**
+     * Resolves a controller method by invoking it once on a proxy of the controller. The arguments of the invocation
+     * are ignored.
+     * <pre>{@code
+     * RouteTable.methodOf(ShipmentController.class, c -> c.getShipment(0))
+     * }</pre>
+     *
+     * @param invocation
+     *         invocation of exactly one method of the controller, which must not return a primitive
+     * @return the invoked method
+     * @throws IllegalArgumentException
+     *         if no method was invoked
+     */
+    public static <ControllerT> Method methodOf(Class<ControllerT> controller, Consumer<ControllerT> invocation) {
+        Method[] invoked = new Method[1];
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetClass(controller);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) methodInvocation -> {
+            invoked[0] = methodInvocation.getMethod();
+            return null;
+        });
+        invocation.accept(controller.cast(proxyFactory.getProxy(controller.getClassLoader())));
+        if (invoked[0] == null) {
+            throw new IllegalArgumentException("No method of " + controller.getName() + " was invoked");
+        }
+        return invoked[0];
+    }
+
+    /**
+     * @param method
+     *         controller method, e.g. resolved with {@link #methodOf(Class, Consumer)}
+     * @param arguments
+     *         arguments as they would be passed to the controller method
+     * @return link to the controller method with the given arguments
+     * @throws IllegalArgumentException
+     *         if the method is not mapped
+     */
+    public Link linkTo(Method method, Object... arguments) {
+        Route route = routeOf(method);
+        Object[] values = new Object[route.template().getVariableNames().length];
+        int[] variableIndexes = route.variableIndexes();
+        for (int i = 0; i < Math.min(arguments.length, variableIndexes.length); i++) {
+            if (variableIndexes[i] >= 0) {
+                values[variableIndexes[i]] = arguments[i] instanceof Collection<?> collection
+                        ? collection.stream().map(String::valueOf).collect(Collectors.joining(","))
+                        : arguments[i];
+            }
+        }
+        return Link.of(route.template().expand(values));
+    }
+
+    /**
+     * @return the compiled template of the controller method
+     * @throws IllegalArgumentException
+     *         if the method is not mapped
+     */
+    public UriTemplate templateOf(Method method) {
+        return routeOf(method).template();
+    }
+
+    private Route routeOf(Method method) {
+        Route route = routes.get(method);
+        if (route == null) {
+            throw new IllegalArgumentException("Controller method " + method.getDeclaringClass().getName() + "#"
+                    + method.getName() + " has no request mapping");
+        }
+        return route;
+    }
+
+    /**
+     * @return the route or {@code null} if the path can't be expressed as a {@link UriTemplate}, e.g. because it
+     * contains a pattern
+     */
+    private static Route compile(String basePath, RequestMapping mapping, Method method) {
+        StringBuilder template = new StringBuilder(joinPaths(basePath, firstPathOf(mapping)));
+        Parameter[] parameters = method.getParameters();
+        String[] parameterNames = PARAMETER_NAMES.getParameterNames(method);
+        String[] linkedNames = new String[parameters.length];
+        List<String> queryNames = new ArrayList<>();
+        for (int i = 0; i < parameters.length; i++) {
+            String discoveredName = parameterNames == null ? null : parameterNames[i];
+            PathVariable pathVariable = parameters[i].getAnnotation(PathVariable.class);
+            RequestParam requestParam = parameters[i].getAnnotation(RequestParam.class);
+            if (pathVariable != null) {
+                linkedNames[i] = pathVariable.name().isEmpty() ? discoveredName : pathVariable.name();
+            } else if (requestParam != null && !Map.class.isAssignableFrom(parameters[i].getType())) {
+                linkedNames[i] = requestParam.name().isEmpty() ? discoveredName : requestParam.name();
+                if (linkedNames[i] != null) {
+                    queryNames.add(linkedNames[i]);
+                }
+            }
+        }
+        if (!queryNames.isEmpty()) {
+            template.append("{?").append(String.join(",", queryNames)).append('}');
+        }
+
+        UriTemplate compiled;
+        try {
+            compiled = UriTemplate.compile(template.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        List<String> variableNames = List.of(compiled.getVariableNames());
+        int[] variableIndexes = new int[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            variableIndexes[i] = linkedNames[i] == null ? -1 : variableNames.indexOf(linkedNames[i]);
+        }
+        return new Route(compiled, variableIndexes);
+    }
+
+    private static String firstPathOf(RequestMapping mapping) {
+        if (mapping == null || mapping.path().length == 0) {
+            return "";
+        }
+        return mapping.path()[0];
+    }
+
+    private static String joinPaths(String basePath, String path) {
+        if (path.isEmpty() || basePath.endsWith("/") || path.startsWith("/")) {
+            return basePath + path;
+        }
+        return basePath + "/" + path;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import org.springframework.web.util.UriUtils;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * URI template that is parsed once and expanded many times. Supports the subset of RFC 6570 the links of this project
+ * use: simple path variables ({@code {orderId}}), form-style queries ({@code {?userId,size}}) and query continuations
+ * ({@code {&cursor}}). Variables without a value are left out, as they are by {@code Link.expand(...)}.
+ * <p>
+ * Expansion appends to a builder that is reused per thread, so expanding a template allocates little more than the
+ * resulting string.
+ */
+public final class UriTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    /**
+     * @param operator
+     *         {@code 0} for a path variable, otherwise {@code ?} or {@code &}
+     */
+    private record Expression(char operator, String[] names, int firstIndex) {
+    }
+
+    private final String template;
+
+    /**
+     * {@code literals[i]} precedes {@code expressions[i]}; the last literal follows the last expression.
+     */
+    private final String[] literals;
+
+    private final Expression[] expressions;
+
+    private final String[] variableNames;
+
+    private UriTemplate(String template, String[] literals, Expression[] expressions, String[] variableNames) {
+        this.template = template;
+        this.literals = literals;
+        this.expressions = expressions;
+        this.variableNames = variableNames;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *         if the template is malformed or uses an unsupported operator
+     */
+    public static UriTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<Expression> expressions = new ArrayList<>();
+        List<String> variableNames = new ArrayList<>();
+        int literalStart = 0;
+        int open;
+        while ((open = template.indexOf('{', literalStart)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed expression in URI template: " + template);
+            }
+            literals.add(template.substring(literalStart, open));
+            String expression = template.substring(open + 1, close);
+            char operator = 0;
+            if (!expression.isEmpty() && (expression.charAt(0) == '?' || expression.charAt(0) == '&')) {
+                operator = expression.charAt(0);
+                expression = expression.substring(1);
+            }
+            String[] names = expression.split(",");
+            for (String name : names) {
+                if (name.isEmpty() || !name.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '_')) {
+                    throw new IllegalArgumentException("Unsupported expression '" + expression
+                            + "' in URI template: " + template);
+                }
+            }
+            if (operator == 0 && names.length != 1) {
+                throw new IllegalArgumentException("Path expressions must have exactly one variable: " + template);
+            }
+            expressions.add(new Expression(operator, names, variableNames.size()));
+            variableNames.addAll(List.of(names));
+            literalStart = close + 1;
+        }
+        literals.add(template.substring(literalStart));
+        return new UriTemplate(template,
+                literals.toArray(String[]::new),
+                expressions.toArray(Expression[]::new),
+                variableNames.toArray(String[]::new));
+    }
+
+    /**
+     * Expands the template with the given values in the order the variables appear in the template. Missing trailing
+     * values and {@code null}s are left out.
+     */
+    public String expand(Object... values) {
+        return expandWithPrefix("", values);
+    }
+
+    /**
+     * Like {@link #expand(Object...)}, with {@code prefix} put in front of the expanded template, e.g. a base URL.
+     */
+    public String expandWithPrefix(String prefix, Object... values) {
+        StringBuilder builder = reusableBuilder();
+        builder.append(prefix);
+        return appendTo(builder, values).toString();
+    }
+
+    /**
+     * Expands the template with the values of the variables by name. If a value is a list, e.g. in a
+     * {@code MultiValueMap} of query parameters, its first element is used. Other entries are ignored.
+     */
+    public String expand(Map<String, ?> values) {
+        return expandWithPrefix("", values);
+    }
+
+    /**
+     * Like {@link #expand(Map)}, with {@code prefix} put in front of the expanded template, e.g. a base URL.
+     */
+    public String expandWithPrefix(String prefix, Map<String, ?> values) {
+        StringBuilder builder = reusableBuilder();
+        builder.append(prefix);
+        return appendTo(builder, values).toString();
+    }
+
+    /**
+     * Appends the template expanded with the given values, in the order the variables appear, to {@code target}.
+     *
+     * @return {@code target}
+     */
+    public StringBuilder appendTo(StringBuilder target, Object... values) {
+        Object[] byIndex = new Object[variableNames.length];
+        System.arraycopy(values, 0, byIndex, 0, Math.min(values.length, byIndex.length));
+        return append(target, byIndex);
+    }
+
+    /**
+     * Appends the template expanded with the values of the variables by name to {@code target}.
+     *
+     * @return {@code target}
+     */
+    public StringBuilder appendTo(StringBuilder target, Map<String, ?> values) {
+        Object[] byIndex = new Object[variableNames.length];
+        for (int i = 0; i < variableNames.length; i++) {
+            Object value = values.get(variableNames[i]);
+            if (value instanceof List<?> list) {
+                value = list.isEmpty() ? null : list.get(0);
+            }
+            byIndex[i] = value;
+        }
+        return append(target, byIndex);
+    }
+
+    public String[] getVariableNames() {
+        return variableNames.clone();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    private StringBuilder append(StringBuilder target, Object[] values) {
+        for (int i = 0; i < expressions.length; i++) {
+            target.append(literals[i]);
+            Expression expression = expressions[i];
+            if (expression.operator() == 0) {
+                Object value = values[expression.firstIndex()];
+                if (value != null) {
+                    target.append(UriUtils.encodePathSegment(value.toString(), StandardCharsets.UTF_8));
+                }
+                continue;
+            }
+            char separator = expression.operator();
+            for (int j = 0; j < expression.names().length; j++) {
+                Object value = values[expression.firstIndex() + j];
+                if (value == null) {
+                    continue;
+                }
+                target.append(separator)
+                        .append(expression.names()[j])
+                        .append('=')
+                        .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return target.append(literals[expressions.length]);
+    }
+
+    private static StringBuilder reusableBuilder() {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        return builder;
+    }
+}
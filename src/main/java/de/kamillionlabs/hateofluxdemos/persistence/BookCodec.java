@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.persistence;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of books, authors and mutations shared by the log and the snapshots.
+ */
+final class BookCodec {
+
+    private BookCodec() {
+    }
+
+    static byte[] encode(BookMutation mutation) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(mutation.type().code());
+            writeString(out, mutation.authorKey());
+            out.writeBoolean(mutation.author() != null);
+            if (mutation.author() != null) {
+                writeAuthor(out, mutation.author());
+            }
+            writeBooks(out, mutation.books());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static BookMutation decode(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            BookMutation.Type type = BookMutation.Type.ofCode(in.readByte());
+            String authorKey = readString(in);
+            AuthorDTO author = in.readBoolean() ? readAuthor(in) : null;
+            return new BookMutation(type, authorKey, author, readBooks(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeAuthor(DataOutput out, AuthorDTO author) throws IOException {
+        out.writeInt(author.getId());
+        writeString(out, author.getName());
+        writeString(out, author.getBirthDate());
+        writeString(out, author.getMainGenre());
+    }
+
+    static AuthorDTO readAuthor(DataInput in) throws IOException {
+        return new AuthorDTO(in.readInt(), readString(in), readString(in), readString(in));
+    }
+
+    static void writeBooks(DataOutput out, List<BookDTO> books) throws IOException {
+        out.writeInt(books.size());
+        for (BookDTO book : books) {
+            out.writeInt(book.getId());
+            writeString(out, book.getTitle());
+            writeString(out, book.getAuthor());
+            writeString(out, book.getIsbn());
+            writeString(out, book.getPublishedDate());
+        }
+    }
+
+    static List<BookDTO> readBooks(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<BookDTO> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(new BookDTO(in.readInt(), readString(in), readString(in), readString(in), readString(in)));
+        }
+        return books;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.persistence;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Durable record of all writes to the book database. Every mutation gets a log sequence number (LSN). On startup the
+ * latest snapshot is loaded and all mutations after it are replayed.
+ */
+public interface BookJournal {
+
+    /**
+     * Journal that doesn't persist anything. Used when no journal directory is configured.
+     */
+    BookJournal NONE = new BookJournal() {
+        @Override
+        public Optional<BookSnapshot> loadLatestSnapshot() {
+            return Optional.empty();
+        }
+
+        @Override
+        public void replay(long afterLsn, Consumer<BookMutation> consumer) {
+        }
+
+        @Override
+        public long append(BookMutation mutation) {
+            return 0;
+        }
+
+        @Override
+        public long lastLsn() {
+            return 0;
+        }
+
+        @Override
+        public Mono<Void> awaitDurable(long lsn) {
+            return Mono.empty();
+        }
+
+        @Override
+        public boolean isSnapshotDue() {
+            return false;
+        }
+
+        @Override
+        public void writeSnapshot(BookSnapshot snapshot) {
+        }
+    };
+
+    Optional<BookSnapshot> loadLatestSnapshot();
+
+    /**
+     * Passes all journaled mutations with an LSN greater than {@code afterLsn} to {@code consumer}, in order.
+     */
+    void replay(long afterLsn, Consumer<BookMutation> consumer);
+
+    /**
+     * Appends the mutation to the log. The mutation is not durable yet when this method returns.
+     *
+     * @return the LSN of the mutation
+     */
+    long append(BookMutation mutation);
+
+    long lastLsn();
+
+    /**
+     * @return a {@link Mono} that completes once all mutations up to and including {@code lsn} are on disk
+     */
+    Mono<Void> awaitDurable(long lsn);
+
+    boolean isSnapshotDue();
+
+    /**
+     * Stores the snapshot and drops the parts of the log it makes obsolete.
+     */
+    void writeSnapshot(BookSnapshot snapshot);
+}
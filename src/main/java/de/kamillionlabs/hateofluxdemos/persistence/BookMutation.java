@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.persistence;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+
+import java.util.List;
+
+/**
+ * A single write to the book database as it is recorded in the {@link BookJournal}.
+ *
+ * @param type
+ *         kind of write
+ * @param authorKey
+ *         normalized name of the author the books are filed under
+ * @param author
+ *         the added author; only set for {@link Type#ADD_AUTHOR}
+ * @param books
+ *         the added books or, for {@link Type#UPDATE_BOOK}, the book as it is after the update
+ */
+public record BookMutation(Type type, String authorKey, AuthorDTO author, List<BookDTO> books) {
+
+    public enum Type {
+        ADD_AUTHOR((byte) 1),
+        ADD_BOOKS((byte) 2),
+        UPDATE_BOOK((byte) 3);
+
+        private final byte code;
+
+        Type(byte code) {
+            this.code = code;
+        }
+
+        byte code() {
+            return code;
+        }
+
+        static Type ofCode(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown mutation type " + code);
+        }
+    }
+
+    public static BookMutation addAuthor(String authorKey, AuthorDTO author, List<BookDTO> books) {
+        return new BookMutation(Type.ADD_AUTHOR, authorKey, author, books);
+    }
+
+    public static BookMutation addBooks(String authorKey, List<BookDTO> books) {
+        return new BookMutation(Type.ADD_BOOKS, authorKey, null, books);
+    }
+
+    public static BookMutation updateBook(String authorKey, BookDTO book) {
+        return new BookMutation(Type.UPDATE_BOOK, authorKey, null, List.of(book));
+    }
+}
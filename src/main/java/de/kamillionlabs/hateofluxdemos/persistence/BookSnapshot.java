@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.persistence;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+
+import java.util.List;
+
+/**
+ * Complete state of the book database up to and including the journal record {@code lsn}.
+ *
+ * @param lsn
+ *         log sequence number of the last mutation contained in the snapshot
+ * @param entries
+ *         all authors with their books
+ */
+public record BookSnapshot(long lsn, List<Entry> entries) {
+
+    public record Entry(String authorKey, AuthorDTO author, List<BookDTO> books) {
+    }
+}
@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * {@link BookJournal} that appends mutations to memory-mapped, fixed size log segments and stores snapshots as compact
+ * binary files. All files live in one directory:
+ * <ul>
+ *     <li>{@code segment-<first LSN>.log}: records of the form {@code [payload length][LSN][payload][CRC32]}. A length
+ *     of 0 marks the end of the written part of a segment.</li>
+ *     <li>{@code snapshot-<LSN>.bin}: all authors and books up to the LSN, followed by a CRC32 of the content.</li>
+ * </ul>
+ * Appends only copy the record into the mapped segment. A single flusher thread forces the segments to disk every
+ * {@code flushInterval} and then completes everyone waiting for one of the flushed LSNs (group commit). Hence, one
+ * fsync covers all mutations of a flush interval.
+ * <p>
+ * Appends run on the write path, so they never create files themselves: the flusher keeps the next segment created and
+ * mapped as {@code spare-segment.tmp}, and a full segment is replaced by renaming the spare. Once the journal is
+ * closed, everyone still waiting for a mutation that didn't make it to disk gets an error.
+ */
+@Slf4j
+public class MappedBookJournal implements BookJournal, Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String SPARE_SEGMENT = "spare-segment.tmp";
+
+    private static final int SNAPSHOT_MAGIC = 0x48464253; // "HFBS"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // payload length + LSN + CRC32
+    private static final int RECORD_OVERHEAD = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private record Segment(Path path, long firstLsn, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    private record Waiter(long lsn, MonoSink<Void> sink) {
+    }
+
+    private record ScanResult(int end, long nextLsn) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long snapshotInterval;
+    private final ScheduledExecutorService flusher;
+    private final PriorityBlockingQueue<Waiter> waiters =
+            new PriorityBlockingQueue<>(64, Comparator.comparingLong(Waiter::lsn));
+
+    // All of the following are guarded by "this"
+    private Segment activeSegment;
+    private Segment spareSegment;
+    private final List<Segment> unflushedSegments = new ArrayList<>();
+    private long lastLsn;
+    private long snapshotLsn;
+
+    private volatile boolean closed;
+    private volatile long durableLsn;
+
+    /**
+     * Opens the journal in {@code directory} or creates a new one if the directory is empty.
+     *
+     * @param directory
+     *         directory holding segments and snapshots
+     * @param segmentSize
+     *         size of a log segment in bytes
+     * @param flushInterval
+     *         how often appended mutations are forced to disk
+     * @param snapshotInterval
+     *         number of mutations after which a new snapshot is due
+     */
+    public MappedBookJournal(Path directory, int segmentSize, Duration flushInterval, long snapshotInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.snapshotInterval = snapshotInterval;
+        try {
+            Files.createDirectories(directory);
+            // Left behind by a crash, never contains any records
+            Files.deleteIfExists(directory.resolve(SPARE_SEGMENT));
+            snapshotLsn = listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).stream()
+                    .mapToLong(MappedBookJournal::lsnOf)
+                    .max()
+                    .orElse(0);
+            List<Path> segments = listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if (segments.isEmpty()) {
+                lastLsn = snapshotLsn;
+                activeSegment = createSegment(segmentPathOf(lastLsn + 1), lastLsn + 1);
+            } else {
+                activeSegment = openLastSegment(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open book journal in " + directory, e);
+        }
+        durableLsn = lastLsn;
+        prepareSpareSegment();
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMicros = Math.max(1, flushInterval.toNanos() / 1000);
+        flusher.scheduleWithFixedDelay(this::flush, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public Optional<BookSnapshot> loadLatestSnapshot() {
+        List<Path> snapshots = listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        try (BufferedInputStream file = new BufferedInputStream(Files.newInputStream(latest), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(file, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IllegalStateException("Unsupported book snapshot " + latest);
+            }
+            long lsn = in.readLong();
+            int entryCount = in.readInt();
+            List<BookSnapshot.Entry> entries = new ArrayList<>(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                String authorKey = in.readUTF();
+                entries.add(new BookSnapshot.Entry(authorKey, BookCodec.readAuthor(in), BookCodec.readBooks(in)));
+            }
+            long expectedChecksum = checked.getChecksum().getValue();
+            if (new DataInputStream(file).readInt() != (int) expectedChecksum) {
+                throw new IllegalStateException("Book snapshot " + latest + " is corrupt");
+            }
+            return Optional.of(new BookSnapshot(lsn, entries));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read book snapshot " + latest, e);
+        }
+    }
+
+    @Override
+    public void replay(long afterLsn, Consumer<BookMutation> consumer) {
+        List<Path> segments = listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            boolean isCoveredBySnapshot = i + 1 < segments.size() && lsnOf(segments.get(i + 1)) - 1 <= afterLsn;
+            if (isCoveredBySnapshot) {
+                continue;
+            }
+            Path segment = segments.get(i);
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                scan(buffer, lsnOf(segment), (lsn, payload) -> {
+                    if (lsn > afterLsn) {
+                        consumer.accept(BookCodec.decode(payload));
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not replay book journal segment " + segment, e);
+            }
+        }
+    }
+
+    @Override
+    public long append(BookMutation mutation) {
+        byte[] payload = BookCodec.encode(mutation);
+        int recordSize = RECORD_OVERHEAD + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Mutation of " + recordSize + " bytes exceeds the segment size of "
+                    + segmentSize + " bytes");
+        }
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Book journal is closed");
+            }
+            if (activeSegment.buffer().remaining() < recordSize) {
+                rollSegment();
+            }
+            long lsn = ++lastLsn;
+            activeSegment.buffer()
+                    .putInt(payload.length)
+                    .putLong(lsn)
+                    .put(payload)
+                    .putInt(checksum(lsn, payload, 0, payload.length));
+            return lsn;
+        }
+    }
+
+    @Override
+    public synchronized long lastLsn() {
+        return lastLsn;
+    }
+
+    @Override
+    public Mono<Void> awaitDurable(long lsn) {
+        if (lsn <= durableLsn) {
+            return Mono.empty();
+        }
+        // Picked up by the next flush at the latest
+        return Mono.create(sink -> {
+            waiters.add(new Waiter(lsn, sink));
+            if (closed) {
+                // There is no next flush. The waiter may have been added after close() released the others
+                releaseWaitersOfClosedJournal();
+            }
+        });
+    }
+
+    @Override
+    public synchronized boolean isSnapshotDue() {
+        return lastLsn - snapshotLsn >= snapshotInterval;
+    }
+
+    @Override
+    public void writeSnapshot(BookSnapshot snapshot) {
+        Path target = directory.resolve(fileName(SNAPSHOT_PREFIX, snapshot.lsn(), SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temporary.toFile())) {
+            BufferedOutputStream file = new BufferedOutputStream(fileOut, 1 << 16);
+            CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(snapshot.lsn());
+            out.writeInt(snapshot.entries().size());
+            for (BookSnapshot.Entry entry : snapshot.entries()) {
+                out.writeUTF(entry.authorKey());
+                BookCodec.writeAuthor(out, entry.author());
+                BookCodec.writeBooks(out, entry.books());
+            }
+            out.flush();
+            new DataOutputStream(file).writeInt((int) checked.getChecksum().getValue());
+            file.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write book snapshot " + target, e);
+        }
+
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (this) {
+                snapshotLsn = Math.max(snapshotLsn, snapshot.lsn());
+            }
+            deleteObsoleteFiles(snapshot.lsn());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not publish book snapshot " + target, e);
+        }
+        log.info("Wrote book snapshot up to LSN {}", snapshot.lsn());
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        releaseWaitersOfClosedJournal();
+        closeQuietly(activeSegment.channel());
+        synchronized (this) {
+            // Only left if the last flush failed
+            unflushedSegments.forEach(segment -> closeQuietly(segment.channel()));
+            unflushedSegments.clear();
+            if (spareSegment != null) {
+                closeQuietly(spareSegment.channel());
+                spareSegment = null;
+                try {
+                    Files.deleteIfExists(directory.resolve(SPARE_SEGMENT));
+                } catch (IOException e) {
+                    log.warn("Could not delete the spare book journal segment", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces everything appended so far to disk and completes the waiters of the now durable LSNs. Full segments are
+     * only dropped from {@code unflushedSegments} once they are forced. If forcing fails, nothing becomes durable and
+     * the next flush forces the remaining segments again.
+     */
+    void flush() {
+        List<Segment> segmentsToForce;
+        Segment active;
+        long lsn;
+        synchronized (this) {
+            lsn = lastLsn;
+            active = activeSegment;
+            segmentsToForce = new ArrayList<>(unflushedSegments);
+            if (lsn > durableLsn) {
+                segmentsToForce.add(active);
+            }
+        }
+        try {
+            for (Segment segment : segmentsToForce) {
+                force(segment.buffer());
+                if (segment != active) {
+                    synchronized (this) {
+                        unflushedSegments.remove(segment);
+                    }
+                    closeQuietly(segment.channel());
+                }
+            }
+            durableLsn = Math.max(durableLsn, lsn);
+        } catch (RuntimeException e) {
+            log.error("Flushing the book journal failed", e);
+            Waiter waiter;
+            while ((waiter = waiters.poll()) != null) {
+                waiter.sink().error(e);
+            }
+            return;
+        }
+
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (waiter.lsn() > durableLsn) {
+                waiters.add(waiter);
+                break;
+            }
+            waiter.sink().success();
+        }
+        prepareSpareSegment();
+    }
+
+    /**
+     * Writes the changes of a mapped segment to disk. Overridden by tests to simulate a failing disk.
+     */
+    void force(MappedByteBuffer buffer) {
+        buffer.force();
+    }
+
+    /**
+     * Completes the waiters whose LSN made it to disk and fails all others, because nothing is flushed anymore.
+     */
+    private void releaseWaitersOfClosedJournal() {
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (waiter.lsn() <= durableLsn) {
+                waiter.sink().success();
+            } else {
+                waiter.sink().error(new IllegalStateException("Book journal was closed before LSN " + waiter.lsn()
+                        + " was durable"));
+            }
+        }
+    }
+
+    /**
+     * Creates and maps the segment the next roll switches to, unless there already is one. Only called by the flusher
+     * (and the constructor), so that appends don't have to.
+     */
+    private void prepareSpareSegment() {
+        synchronized (this) {
+            if (spareSegment != null || closed) {
+                return;
+            }
+        }
+        Segment spare;
+        try {
+            spare = createSegment(directory.resolve(SPARE_SEGMENT), 0);
+        } catch (IOException e) {
+            // The next roll creates its segment itself
+            log.warn("Could not prepare the next book journal segment", e);
+            return;
+        }
+        synchronized (this) {
+            spareSegment = spare;
+        }
+    }
+
+    // guarded by "this"
+    private void rollSegment() {
+        unflushedSegments.add(activeSegment);
+        long firstLsn = lastLsn + 1;
+        Path path = segmentPathOf(firstLsn);
+        try {
+            if (spareSegment != null) {
+                // The mapping stays valid, only the name changes
+                Files.move(spareSegment.path(), path, StandardCopyOption.ATOMIC_MOVE);
+                activeSegment = new Segment(path, firstLsn, spareSegment.channel(), spareSegment.buffer());
+                spareSegment = null;
+            } else {
+                // The flusher didn't keep up, e.g. because of a burst of large mutations
+                activeSegment = createSegment(path, firstLsn);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create book journal segment", e);
+        }
+    }
+
+    private Path segmentPathOf(long firstLsn) {
+        return directory.resolve(fileName(SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    private Segment createSegment(Path path, long firstLsn) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new Segment(path, firstLsn, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    private Segment openLastSegment(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        long firstLsn = lsnOf(path);
+        ScanResult scan = scan(buffer.duplicate(), firstLsn, (lsn, payload) -> {
+        });
+        // Wipe whatever a crash may have left behind the last complete record
+        for (int i = scan.end(); i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.position(scan.end());
+        lastLsn = Math.max(scan.nextLsn() - 1, snapshotLsn);
+        return new Segment(path, firstLsn, channel, buffer);
+    }
+
+    private interface RecordConsumer {
+        void accept(long lsn, byte[] payload);
+    }
+
+    /**
+     * Reads all complete records of a segment, starting at position 0.
+     *
+     * @return where the last complete record ends and the LSN the next record would get
+     */
+    private static ScanResult scan(ByteBuffer buffer, long firstLsn, RecordConsumer consumer) {
+        long expectedLsn = firstLsn;
+        int position = 0;
+        while (buffer.capacity() - position >= RECORD_OVERHEAD) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - RECORD_OVERHEAD) {
+                break;
+            }
+            long lsn = buffer.getLong(position + Integer.BYTES);
+            byte[] payload = new byte[length];
+            buffer.get(position + Integer.BYTES + Long.BYTES, payload);
+            int storedChecksum = buffer.getInt(position + Integer.BYTES + Long.BYTES + length);
+            if (lsn != expectedLsn || storedChecksum != checksum(lsn, payload, 0, length)) {
+                break;
+            }
+            consumer.accept(lsn, payload);
+            expectedLsn++;
+            position += RECORD_OVERHEAD + length;
+        }
+        return new ScanResult(position, expectedLsn);
+    }
+
+    private void deleteObsoleteFiles(long snapshotLsn) throws IOException {
+        for (Path snapshot : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (lsnOf(snapshot) < snapshotLsn) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        // A segment is obsolete if the next one starts at or before the first LSN not contained in the snapshot
+        List<Path> segments = listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (lsnOf(segments.get(i + 1)) - 1 <= snapshotLsn) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    private List<Path> listFiles(String prefix, String suffix) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted(Comparator.comparingLong(MappedBookJournal::lsnOf))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list " + directory, e);
+        }
+    }
+
+    private static String fileName(String prefix, long lsn, String suffix) {
+        return prefix + String.format("%020d", lsn) + suffix;
+    }
+
+    private static long lsnOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+    }
+
+    private static int checksum(long lsn, byte[] payload, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, lsn));
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("Could not close {}", closeable, e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+/**
+ * Is notified by the {@link BookService} after every write, before the write's {@code Mono} completes. Listeners run
+ * on the writing thread and must not block.
+ */
+public interface BookChangeListener {
+
+    /**
+     * The book with the given id was added or updated.
+     */
+    void bookChanged(int bookId);
+
+    /**
+     * The author was added. Books that already named this author may now resolve to them.
+     */
+    void authorChanged(String authorName);
+}
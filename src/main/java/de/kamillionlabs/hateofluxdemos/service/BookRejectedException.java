@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+/**
+ * Signals that a book was not added because of its content, e.g. because it has no id or its author already has a
+ * book with the same title. Unlike other exceptions of the {@link BookService}, this is caused by the request and not
+ * by a bug, so it may be reported to the client.
+ */
+public class BookRejectedException extends IllegalArgumentException {
+
+    public BookRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the titles and author names of books. Every term points to a sorted posting list of book ids.
+ * The terms are kept sorted as well, so that all terms starting with a prefix form one contiguous range.
+ * <p>
+ * A query matches a book if every query term matches a term of its title or author name, either exactly or as a
+ * prefix. Matches in the title rank higher than matches in the author name and exact matches rank higher than prefix
+ * matches.
+ */
+class BookSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final double EXACT_TITLE_MATCH = 4;
+    private static final double PREFIX_TITLE_MATCH = 2;
+    private static final double EXACT_AUTHOR_MATCH = 2;
+    private static final double PREFIX_AUTHOR_MATCH = 1;
+
+    /**
+     * Growable, sorted list of book ids.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertionPoint = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertionPoint, ids, insertionPoint + 1, size - insertionPoint);
+            ids[insertionPoint] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /**
+     * Open addressing hash map from book ids to scores, without boxing either of them.
+     */
+    private static final class Scores {
+        private int[] ids = new int[16];
+        private double[] scores = new double[16];
+        private boolean[] isUsed = new boolean[16];
+        private int size;
+
+        /**
+         * Sets the score of the id unless it already has a higher one.
+         */
+        void max(int id, double score) {
+            int slot = slotOf(id);
+            if (isUsed[slot]) {
+                scores[slot] = Math.max(scores[slot], score);
+                return;
+            }
+            ids[slot] = id;
+            scores[slot] = score;
+            isUsed[slot] = true;
+            if (++size * 2 > ids.length) {
+                grow();
+            }
+        }
+
+        boolean contains(int id) {
+            return isUsed[slotOf(id)];
+        }
+
+        /**
+         * Adds the score each id has in {@code other}. All ids have to be contained in {@code other}.
+         */
+        void addAll(Scores other) {
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (isUsed[slot]) {
+                    scores[slot] += other.scores[other.slotOf(ids[slot])];
+                }
+            }
+        }
+
+        private int slotOf(int id) {
+            int mask = ids.length - 1;
+            int hash = id * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (isUsed[slot] && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            double[] oldScores = scores;
+            boolean[] oldIsUsed = isUsed;
+            ids = new int[oldIds.length * 2];
+            scores = new double[oldIds.length * 2];
+            isUsed = new boolean[oldIds.length * 2];
+            for (int slot = 0; slot < oldIds.length; slot++) {
+                if (oldIsUsed[slot]) {
+                    int newSlot = slotOf(oldIds[slot]);
+                    ids[newSlot] = oldIds[slot];
+                    scores[newSlot] = oldScores[slot];
+                    isUsed[newSlot] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Best matches of a search.
+     *
+     * @param ids
+     *         ids of the best matching books, best match first and ties ordered by id
+     * @param total
+     *         number of all matching books
+     */
+    record Hits(int[] ids, int total) {
+
+        static final Hits NONE = new Hits(new int[0], 0);
+    }
+
+    private record Document(Set<String> titleTerms, Set<String> authorTerms) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> titleIndex = new TreeMap<>();
+    private final TreeMap<String, Postings> authorIndex = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+
+    /**
+     * Adds the book to the index or, if a book with the same id is already indexed, replaces it.
+     */
+    void index(BookDTO book) {
+        Document document = new Document(terms(book.getTitle()), terms(book.getAuthor()));
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.put(book.getId(), document);
+            if (previous != null) {
+                previous.titleTerms().forEach(term -> removePosting(titleIndex, term, book.getId()));
+                previous.authorTerms().forEach(term -> removePosting(authorIndex, term, book.getId()));
+            }
+            document.titleTerms().forEach(term -> titleIndex.computeIfAbsent(term, t -> new Postings()).add(book.getId()));
+            document.authorTerms().forEach(term -> authorIndex.computeIfAbsent(term, t -> new Postings()).add(book.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches for books matching all terms of the query. Only the best {@code limit} matches are ordered, so a page
+     * of the results costs O(n log limit) for n matches instead of sorting all of them.
+     *
+     * @return the best {@code limit} matches and the number of all matches
+     */
+    Hits search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(terms(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Hits.NONE;
+        }
+
+        Scores scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : queryTerms) {
+                // Every query term has to match, so only books matching all previous terms are scored
+                Scores termScores = new Scores();
+                collect(titleIndex, queryTerm, EXACT_TITLE_MATCH, PREFIX_TITLE_MATCH, scores, termScores);
+                collect(authorIndex, queryTerm, EXACT_AUTHOR_MATCH, PREFIX_AUTHOR_MATCH, scores, termScores);
+                if (scores != null) {
+                    termScores.addAll(scores);
+                }
+                scores = termScores;
+                if (scores.size == 0) {
+                    return Hits.NONE;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Hits(best(scores, limit), scores.size);
+    }
+
+    /**
+     * Keeps the best score per book of all terms that are equal to or start with {@code queryTerm}. If
+     * {@code candidates} is given, only books contained in it are scored.
+     */
+    private static void collect(TreeMap<String, Postings> index, String queryTerm, double exactScore,
+                                double prefixScore, Scores candidates, Scores termScores) {
+        for (Map.Entry<String, Postings> entry : index.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                .entrySet()) {
+            double score = entry.getKey().equals(queryTerm) ? exactScore : prefixScore;
+            Postings postings = entry.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                if (candidates == null || candidates.contains(postings.ids[i])) {
+                    termScores.max(postings.ids[i], score);
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects the best {@code limit} ids with a heap that has the worst of them at its root.
+     *
+     * @return the selected ids, best match first and ties ordered by id
+     */
+    private static int[] best(Scores scores, int limit) {
+        int capacity = Math.min(limit, scores.size);
+        int[] heapIds = new int[capacity];
+        double[] heapScores = new double[capacity];
+        int size = 0;
+        for (int slot = 0; slot < scores.ids.length; slot++) {
+            if (!scores.isUsed[slot]) {
+                continue;
+            }
+            int id = scores.ids[slot];
+            double score = scores.scores[slot];
+            if (size < capacity) {
+                heapIds[size] = id;
+                heapScores[size] = score;
+                siftUp(heapIds, heapScores, size++);
+            } else if (isWorse(heapScores[0], heapIds[0], score, id)) {
+                heapIds[0] = id;
+                heapScores[0] = score;
+                siftDown(heapIds, heapScores, 0, size);
+            }
+        }
+        // Removing the worst one after the other fills the result from its end
+        int[] best = new int[size];
+        for (int last = size - 1; last >= 0; last--) {
+            best[last] = heapIds[0];
+            heapIds[0] = heapIds[last];
+            heapScores[0] = heapScores[last];
+            siftDown(heapIds, heapScores, 0, last);
+        }
+        return best;
+    }
+
+    /**
+     * @return whether the first match ranks lower than the second one
+     */
+    private static boolean isWorse(double score, int id, double otherScore, int otherId) {
+        return score < otherScore || (score == otherScore && id > otherId);
+    }
+
+    private static void siftUp(int[] ids, double[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isWorse(scores[index], ids[index], scores[parent], ids[parent])) {
+                return;
+            }
+            swap(ids, scores, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] ids, double[] scores, int index, int size) {
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (isWorse(scores[child], ids[child], scores[worst], ids[worst])) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(ids, scores, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] ids, double[] scores, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    private static void removePosting(TreeMap<String, Postings> index, String term, int id) {
+        Postings postings = index.get(term);
+        if (postings != null) {
+            postings.remove(id);
+            if (postings.isEmpty()) {
+                index.remove(term);
+            }
+        }
+    }
+
+    private static Set<String> terms(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
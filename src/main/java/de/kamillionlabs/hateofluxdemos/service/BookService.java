@@ -8,22 +8,55 @@
 package de.kamillionlabs.hateofluxdemos.service;
 
 import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookBatchResultDTO;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.persistence.BookJournal;
+import de.kamillionlabs.hateofluxdemos.persistence.BookMutation;
+import de.kamillionlabs.hateofluxdemos.persistence.BookSnapshot;
+import de.kamillionlabs.hateofluxdemos.storage.BookTable;
+import de.kamillionlabs.hateofluxdemos.storage.HeapBookTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * @author Younes El Ouarti
  */
+@Slf4j
 @Service
 public class BookService {
 
     public static AuthorDTO UNKNOWN_AUTHOR = new AuthorDTO(-1, "n/a", "n/a", "n/a");
 
+    private static final String UNKNOWN_AUTHOR_KEY = normalizeAuthorName(UNKNOWN_AUTHOR.getName());
+
+    // Keys of the positions used by getBooksByAuthorName(String, KeysetScrollPosition, int)
+    public static final String KEYSET_ID = "id";
+    public static final String KEYSET_ROW = "row";
+
+    // LSN of a write that was rejected and therefore never journaled
+    private static final long NOT_WRITTEN = -1;
+
     public enum AuthorName {
         JOSHUA_BLOCH("Joshua Bloch"), //1
         ROBERT_MARTIN("Robert C. Martin"), //1
@@ -60,12 +93,118 @@ public class BookService {
         }
     }
 
-    private final LinkedMultiValueMap<AuthorDTO, BookDTO> database;
+    /**
+     * Immutable version of an author and the rows of their books. Writers never modify what an entry shows but publish
+     * a new one, so readers always iterate over a consistent list of books without taking a lock.
+     *
+     * @param rows
+     *         rows of the books in the order they were added; only the first {@code rowCount} belong to this entry
+     */
+    private record AuthorEntry(AuthorDTO author, int[] rows, int rowCount, SortedLongRuns keysById, long revision) {
+
+        static AuthorEntry of(AuthorDTO author, int[] rows, int[] ids, long revision) {
+            return new AuthorEntry(author, new int[0], 0, SortedLongRuns.EMPTY, revision)
+                    .withRows(rows, ids, revision);
+        }
+
+        /**
+         * Appends the rows without copying the existing ones. Consecutive versions of an author share the array of
+         * rows, which is only copied once it is full, doubling its capacity. Entries are only derived from the latest
+         * version of an author, so appending never overwrites a row that an older version shows.
+         *
+         * @param additionalIds
+         *         ids of the books in {@code additionalRows}, in the same order
+         */
+        AuthorEntry withRows(int[] additionalRows, int[] additionalIds, long newRevision) {
+            int newRowCount = rowCount + additionalRows.length;
+            int[] newRows = newRowCount <= rows.length
+                    ? rows
+                    : Arrays.copyOf(rows, Math.max(newRowCount, rows.length * 2));
+            System.arraycopy(additionalRows, 0, newRows, rowCount, additionalRows.length);
+
+            long[] additionalKeys = new long[additionalRows.length];
+            for (int i = 0; i < additionalKeys.length; i++) {
+                additionalKeys[i] = keyOf(additionalIds[i], additionalRows[i]);
+            }
+            return new AuthorEntry(author, newRows, newRowCount, keysById.with(additionalKeys), newRevision);
+        }
+
+        AuthorEntry withRevision(long newRevision) {
+            return new AuthorEntry(author, rows, rowCount, keysById, newRevision);
+        }
+
+        /**
+         * Orders by id first and by row second, so that books sharing an id still have distinct keys.
+         */
+        static long keyOf(int id, int row) {
+            return ((long) id << 32) | (row & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Result of a write together with the LSN it was journaled under.
+     */
+    private record Journaled<T>(T value, long lsn) {
+    }
+
+    // The database, keyed by normalized author name. Writes to an author are serialized by the author's lock in
+    // authorLocks, which also covers appending to the journal. Map operations themselves never wait for I/O.
+    private final ConcurrentHashMap<String, AuthorEntry> database;
+    private final ConcurrentHashMap<String, Object> authorLocks = new ConcurrentHashMap<>();
+
+    // Holds the books themselves and indexes them by id and title. Rows are only written while holding the lock of the
+    // owning author
+    private final BookTable table;
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+
+    // Every write takes the next revision. Starting at the current time in microseconds keeps revisions increasing
+    // across restarts, so that a revision handed out before can't describe different content afterward.
+    private final AtomicLong revisions = new AtomicLong(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+
+    // Writes hold the read lock from journaling to publishing, so that a snapshot (briefly holding the write lock)
+    // fences off a consistent LSN
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean isSnapshotRunning = new AtomicBoolean();
+
+    // Stays NONE while the database is restored, so that replayed mutations aren't journaled again
+    private BookJournal journal = BookJournal.NONE;
+
+    private final List<BookChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
 
     public BookService() {
-        database = new LinkedMultiValueMap<>();
+        this(new HeapBookTable(), BookJournal.NONE);
+    }
+
+    @Autowired
+    public BookService(ObjectProvider<BookTable> table, ObjectProvider<BookJournal> journal) {
+        this(table.getIfAvailable(HeapBookTable::new), journal.getIfAvailable(() -> BookJournal.NONE));
+    }
+
+    BookService(BookTable table, BookJournal journal) {
+        this.database = new ConcurrentHashMap<>();
+        this.table = table;
+
+        long start = System.nanoTime();
+        Optional<BookSnapshot> snapshot = journal.loadLatestSnapshot();
+        snapshot.ifPresentOrElse(this::restore, this::addSampleBooks);
+        long[] replayed = new long[1];
+        journal.replay(snapshot.map(BookSnapshot::lsn).orElse(0L), mutation -> {
+            apply(mutation);
+            replayed[0]++;
+        });
+        this.journal = journal;
+
+        if (journal != BookJournal.NONE) {
+            log.info("Restored {} books ({} mutations replayed) in {} ms", table.size(), replayed[0],
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
 
+    /**
+     * Fills the database with the books used throughout the examples. Only happens if there is no snapshot yet.
+     */
+    private void addSampleBooks() {
         BookDTO book1 = BookDTO.builder()
                 .id(1)
                 .title("Effective Java")
@@ -81,7 +220,7 @@ public class BookService {
                 .mainGenre("Programming")
                 .build();
 
-        database.addAll(author1, List.of(book1));
+        putAuthor(author1, List.of(book1));
 
         BookDTO book2 = BookDTO.builder()
                 .id(2)
@@ -98,7 +237,7 @@ public class BookService {
                 .mainGenre("Software Engineering")
                 .build();
 
-        database.addAll(author2, List.of(book2));
+        putAuthor(author2, List.of(book2));
 
         BookDTO book3 = BookDTO.builder()
                 .id(3)
@@ -123,7 +262,7 @@ public class BookService {
                 .mainGenre("Programming Languages")
                 .build();
 
-        database.addAll(author3, List.of(book3, book4));
+        putAuthor(author3, List.of(book3, book4));
 
         BookDTO book5 = BookDTO.builder()
                 .id(5)
@@ -156,7 +295,7 @@ public class BookService {
                 .mainGenre("Software Architecture")
                 .build();
 
-        database.addAll(author4, List.of(book5, book6, book7));
+        putAuthor(author4, List.of(book5, book6, book7));
 
         BookDTO book8 = BookDTO.builder()
                 .id(8)
@@ -173,7 +312,7 @@ public class BookService {
                 .mainGenre("Software Engineering")
                 .build();
 
-        database.addAll(author5, List.of(book8));
+        putAuthor(author5, List.of(book8));
 
         BookDTO book9 = BookDTO.builder()
                 .id(9)
@@ -190,7 +329,7 @@ public class BookService {
                 .mainGenre("Software Development")
                 .build();
 
-        database.addAll(author6, List.of(book9));
+        putAuthor(author6, List.of(book9));
 
 
         BookDTO book10 = BookDTO.builder()
@@ -208,7 +347,7 @@ public class BookService {
                 .mainGenre("Software Maintenance")
                 .build();
 
-        database.addAll(author7, List.of(book10));
+        putAuthor(author7, List.of(book10));
 
         BookDTO book11 = BookDTO.builder()
                 .id(11)
@@ -217,7 +356,7 @@ public class BookService {
                 .publishedDate("1970-01-01")
                 .build();
 
-        database.add(UNKNOWN_AUTHOR, book11);
+        putBook(UNKNOWN_AUTHOR, book11);
 
         BookDTO book12 = BookDTO.builder()
                 .id(12)
@@ -226,16 +365,31 @@ public class BookService {
                 .publishedDate("1970-02-02")
                 .build();
 
-        database.add(UNKNOWN_AUTHOR, book12);
+        putBook(UNKNOWN_AUTHOR, book12);
     }
 
     public Mono<BookDTO> getBookById(int id) {
-        return database.entrySet().stream()
-                .filter(pair -> pair.getValue().stream().anyMatch(book -> Objects.equals(book.getId(), id)))
-                .findFirst()
-                .map(multiPair -> multiPair.getValue().get(0))
-                .map(Mono::just)
-                .orElse(Mono.empty());
+        return Mono.fromSupplier(() -> bookAt(table.findById(id)));
+    }
+
+    /**
+     * Same as {@link #getBookById(int)}, but also returns the current revision of the book.
+     */
+    public Mono<Revisioned<BookDTO>> getRevisionedBookById(int id) {
+        return Mono.fromSupplier(() -> {
+            int row = table.findById(id);
+            if (row == BookTable.NOT_FOUND) {
+                return null;
+            }
+            // Revision and book are read separately, so retry if an update happened in between
+            long revision;
+            BookDTO book;
+            do {
+                revision = table.revisionOf(row);
+                book = table.get(row);
+            } while (revision != table.revisionOf(row));
+            return new Revisioned<>(book, revision);
+        });
     }
 
     public Mono<BookDTO> getBookByTitle(BookTitle bookTitle) {
@@ -243,12 +397,32 @@ public class BookService {
     }
 
     public Mono<BookDTO> getBookByTitle(String bookTitle) {
-        return database.entrySet().stream()
-                .filter(pair -> pair.getValue().stream().anyMatch(book -> Objects.equals(book.getTitle(), bookTitle)))
-                .findFirst()
-                .map(multiPair -> multiPair.getValue().get(0))
-                .map(Mono::just)
-                .orElse(Mono.empty());
+        if (bookTitle == null) {
+            return Mono.empty();
+        }
+        return Mono.fromSupplier(() -> bookAt(table.findByTitle(bookTitle)));
+    }
+
+
+    /**
+     * Full-text search over titles and author names. Every term of the query has to match a word of the title or the
+     * author name, either completely or as its prefix.
+     *
+     * @param query
+     *         search terms, e.g. "java conc"
+     * @param pageable
+     *         page of the results to return; the results are always sorted by relevance
+     * @return the requested page of matching books, best match first
+     */
+    public Mono<Page<BookDTO>> searchBooks(String query, Pageable pageable) {
+        int limit = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        BookSearchIndex.Hits hits = searchIndex.search(query, limit);
+        List<BookDTO> books = Arrays.stream(hits.ids())
+                .skip(pageable.getOffset())
+                .mapToObj(id -> bookAt(table.findById(id)))
+                .filter(Objects::nonNull)
+                .toList();
+        return Mono.just(new PageImpl<>(books, pageable, hits.total()));
     }
 
 
@@ -257,62 +431,140 @@ public class BookService {
     }
 
     public Flux<BookDTO> getAllBooksByAuthorName(String authorName) {
-        return database.entrySet().stream()
-                .filter(pair -> pair.getKey().getName().strip().equalsIgnoreCase(authorName))
-                .map(Map.Entry::getValue)
-                .findFirst()
-                .map(Flux::fromIterable)
-                .orElse(Flux.empty());
+        AuthorEntry entry = findEntry(authorName);
+        if (entry == null) {
+            return Flux.empty();
+        }
+        // Books are only materialized while they are emitted
+        int[] rows = entry.rows();
+        return Flux.range(0, entry.rowCount())
+                .map(i -> table.get(rows[i]));
     }
 
 
+    /**
+     * Keyset pagination over the books of an author, ordered by id. A window is found by binary search for its
+     * position, so fetching it costs the same no matter how far the client has scrolled.
+     *
+     * @param authorName
+     *         name of the author
+     * @param position
+     *         the window starts after this position; {@link ScrollPosition#keyset()} for the first window
+     * @param limit
+     *         maximum number of books in the window
+     * @return the window, empty if there is no such author
+     */
+    public Mono<Window<BookDTO>> getBooksByAuthorName(String authorName, KeysetScrollPosition position, int limit) {
+        return Mono.justOrEmpty(findEntry(authorName))
+                .map(entry -> {
+                    // One more key than requested tells whether there is a next window
+                    int limitWithNext = (int) Math.min(Integer.MAX_VALUE, limit + 1L);
+                    long[] keys = position.isInitial()
+                            ? entry.keysById().first(limitWithNext)
+                            : entry.keysById().after(AuthorEntry.keyOf((Integer) position.getKeys().get(KEYSET_ID),
+                                    (Integer) position.getKeys().get(KEYSET_ROW)), limitWithNext);
+                    int end = Math.min(keys.length, limit);
+
+                    List<BookDTO> books = new ArrayList<>(end);
+                    for (int i = 0; i < end; i++) {
+                        books.add(table.get((int) keys[i]));
+                    }
+                    return Window.from(books, i -> ScrollPosition.forward(Map.of(
+                                    KEYSET_ID, (int) (keys[i] >> 32),
+                                    KEYSET_ROW, (int) keys[i])),
+                            keys.length > limit);
+                });
+    }
+
+    /**
+     * @return the revision of the author's list of books, which changes whenever a book is added to the list or one
+     * of the books is updated
+     */
+    public Mono<Long> getRevisionOfBooksByAuthorName(String authorName) {
+        return Mono.justOrEmpty(findEntry(authorName))
+                .map(AuthorEntry::revision);
+    }
+
     public Mono<AuthorDTO> getAuthorByName(AuthorName authorName) {
         return getAuthorByName(authorName.name);
     }
 
     public Mono<AuthorDTO> getAuthorByName(String authorName) {
-        return database.entrySet().stream()
-                .filter(kv -> kv.getKey().getName().strip().equalsIgnoreCase(authorName))
-                .findFirst()
-                .map(Map.Entry::getKey)
-                .map(Mono::just)
-                .orElse(Mono.empty());
+        return Mono.justOrEmpty(findEntry(authorName))
+                .map(AuthorEntry::author);
     }
 
     public Mono<Void> addAuthor(AuthorDTO author) {
         Objects.requireNonNull(author, "Author cannot be null");
         // Check if author already exists
-        boolean exists = database.entrySet().stream()
-                .anyMatch(kv -> kv.getKey().getName().equalsIgnoreCase(author.getName()));
-        if (exists) {
+        long lsn = putAuthor(author, List.of());
+        if (lsn == NOT_WRITTEN) {
             return Mono.error(new IllegalArgumentException("Author already exists"));
         }
-        database.addAll(author, new ArrayList<>());
-        return Mono.empty();
+        changeListeners.forEach(listener -> listener.authorChanged(author.getName()));
+        return durable(lsn);
     }
 
     public Mono<BookDTO> addBook(BookDTO book) {
         Objects.requireNonNull(book, "Book cannot be null");
         Objects.requireNonNull(book.getAuthor(), "Book must have an author");
+        if (!hasId(book)) {
+            return Mono.error(new BookRejectedException("Book must have an id"));
+        }
 
         // Find the author in the database
-        Optional<Map.Entry<AuthorDTO, List<BookDTO>>> authorPairOpt = database.entrySet().stream()
-                .filter(pair -> pair.getKey().getName().equalsIgnoreCase(book.getAuthor()))
-                .findFirst();
-
-        if (authorPairOpt.isPresent()) {
-            Map.Entry<AuthorDTO, List<BookDTO>> authorPair = authorPairOpt.get();
-            // Check if the book already exists
-            boolean bookExists = authorPair.getValue().stream()
-                    .anyMatch(existingBook -> existingBook.getTitle().equalsIgnoreCase(book.getTitle()));
-            if (bookExists) {
-                return Mono.error(new IllegalArgumentException("Book already exists for this author"));
+        long lsn = putBook(authorKeyOf(book), book);
+        if (lsn == NOT_WRITTEN) {
+            return Mono.error(new BookRejectedException("Book already exists for this author"));
+        }
+        notifyBooksChanged(List.of(book));
+        return durable(lsn).thenReturn(book);
+    }
+
+    /**
+     * Adds a batch of books in one pass. The batch is validated first and then grouped by author, so that every author
+     * is updated only once, no matter how many of the books belong to them. Invalid books and duplicates are skipped
+     * and reported in the result rather than failing the whole batch.
+     *
+     * @param books
+     *         The books to add. Books of unknown authors are filed under {@link #UNKNOWN_AUTHOR}.
+     * @return the number of accepted books and the reasons for the rejected ones
+     */
+    public Mono<BookBatchResultDTO> addBooks(List<BookDTO> books) {
+        Objects.requireNonNull(books, "Books list cannot be null");
+
+        List<String> errors = new ArrayList<>();
+        Map<String, List<BookDTO>> booksByAuthorKey = new LinkedHashMap<>();
+        for (BookDTO book : books) {
+            if (book == null) {
+                errors.add("Book cannot be null");
+            } else if (!hasId(book)) {
+                errors.add("Book \"" + book.getTitle() + "\" must have an id");
+            } else if (book.getTitle() == null) {
+                errors.add("Book " + book.getId() + " must have a title");
+            } else if (book.getAuthor() == null) {
+                errors.add("Book " + book.getId() + " must have an author");
+            } else {
+                booksByAuthorKey.computeIfAbsent(authorKeyOf(book), key -> new ArrayList<>()).add(book);
+            }
+        }
+
+        long lastLsn = 0;
+        for (Map.Entry<String, List<BookDTO>> authorBooks : booksByAuthorKey.entrySet()) {
+            List<BookDTO> booksOfAuthor = authorBooks.getValue();
+            Journaled<List<BookDTO>> rejected = putBooks(authorBooks.getKey(), booksOfAuthor);
+            rejected.value().forEach(book -> errors.add("Book " + book.getId() + " already exists for this author"));
+            if (rejected.value().size() < booksOfAuthor.size()) {
+                notifyBooksChanged(booksOfAuthor);
+                lastLsn = Math.max(lastLsn, rejected.lsn());
             }
-            authorPair.getValue().add(book);
-        } else {
-            database.add(UNKNOWN_AUTHOR, book);
         }
-        return Mono.just(book);
+
+        return durable(lastLsn).thenReturn(BookBatchResultDTO.builder()
+                .accepted(books.size() - errors.size())
+                .rejected(errors.size())
+                .errors(errors)
+                .build());
     }
 
     /**
@@ -328,51 +580,312 @@ public class BookService {
         Objects.requireNonNull(author, "Author cannot be null");
         Objects.requireNonNull(books, "Books list cannot be null");
 
-        // Check if author already exists
-        boolean exists = database.entrySet().stream()
-                .anyMatch(pair -> pair.getKey().getName().equalsIgnoreCase(author.getName()));
-        if (exists) {
-            return Mono.error(new IllegalArgumentException("Author already exists"));
-        }
-
-        // Ensure all books have the correct author name
+        // Ensure all books have an id and the correct author name
         for (BookDTO book : books) {
+            if (!hasId(book)) {
+                return Mono.error(new IllegalArgumentException("Book must have an id"));
+            }
             if (!book.getAuthor().equalsIgnoreCase(author.getName())) {
                 return Mono.error(new IllegalArgumentException(
                         "Book author does not match the provided author"));
             }
         }
 
-        database.addAll(author, new ArrayList<>(books));
-        return Mono.empty();
+        // Check if author already exists
+        long lsn = putAuthor(author, books);
+        if (lsn == NOT_WRITTEN) {
+            return Mono.error(new IllegalArgumentException("Author already exists"));
+        }
+        changeListeners.forEach(listener -> listener.authorChanged(author.getName()));
+        notifyBooksChanged(books);
+        return durable(lsn);
     }
 
     public Mono<BookDTO> updateBook(BookDTO updatedBook) {
+        return updateBook(updatedBook, null)
+                .map(Revisioned::value);
+    }
+
+    /**
+     * Updates the book only if it wasn't changed in the meantime. The revision is checked and the book replaced in one
+     * atomic step, so no update gets lost without the caller holding a lock.
+     *
+     * @param updatedBook
+     *         the new content of the book with the title of {@code updatedBook}
+     * @param expectedRevisions
+     *         revisions the book may currently have or {@code null} to update it unconditionally
+     * @return the updated book with its new revision, empty if there is no such book or a
+     * {@link ConcurrentModificationException} if the book has none of the expected revisions
+     */
+    public Mono<Revisioned<BookDTO>> updateBook(BookDTO updatedBook, Set<Long> expectedRevisions) {
         Objects.requireNonNull(updatedBook, "Updated book cannot be null");
         String titleOfUpdateBook = updatedBook.getTitle();
         Objects.requireNonNull(titleOfUpdateBook, "Title cannot be null");
 
-        for (var pair : database.entrySet()) {
-            List<BookDTO> books = pair.getValue();
-            for (int i = 0; i < books.size(); i++) {
-                BookDTO currentBook = books.get(i);
-                if (currentBook.getTitle().equalsIgnoreCase(titleOfUpdateBook)) {
-                    //only change isbn and pub date for simplicity
-                    BookDTO bookToUpdate = BookDTO.builder()
-                            .id(currentBook.getId())
-                            .title(currentBook.getTitle())
-                            .author(updatedBook.getAuthor() != null ?
-                                    updatedBook.getAuthor() : currentBook.getAuthor())
-                            .isbn(updatedBook.getIsbn())  //can change ISBN
-                            .publishedDate(updatedBook.getPublishedDate() != null ?
-                                    updatedBook.getPublishedDate() : currentBook.getPublishedDate())
-                            .build();
-                    books.set(i, bookToUpdate);
-                    return Mono.just(bookToUpdate);
+        Journaled<Revisioned<BookDTO>> bookToUpdate;
+        try {
+            bookToUpdate = update(updatedBook, expectedRevisions);
+        } catch (ConcurrentModificationException e) {
+            return Mono.error(e);
+        }
+        if (bookToUpdate == null) {
+            return Mono.empty();
+        }
+        notifyBooksChanged(List.of(bookToUpdate.value().value()));
+        return durable(bookToUpdate.lsn()).thenReturn(bookToUpdate.value());
+    }
+
+    /**
+     * Registers a listener that is notified of every subsequent write, e.g. to invalidate a cache.
+     */
+    public void addChangeListener(BookChangeListener listener) {
+        changeListeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    private void notifyBooksChanged(List<BookDTO> books) {
+        for (BookChangeListener listener : changeListeners) {
+            books.forEach(book -> listener.bookChanged(book.getId()));
+        }
+    }
+
+    /**
+     * Completes once the write with the given LSN is durable, without waiting for writes that were made after it.
+     * Completes immediately if there is no journal.
+     */
+    private Mono<Void> durable(long lsn) {
+        maybeWriteSnapshot();
+        return journal.awaitDurable(lsn);
+    }
+
+    private void apply(BookMutation mutation) {
+        switch (mutation.type()) {
+            case ADD_AUTHOR -> putAuthor(mutation.author(), mutation.books());
+            case ADD_BOOKS -> putBooks(mutation.authorKey(), mutation.books());
+            case UPDATE_BOOK -> update(mutation.books().get(0), null);
+        }
+    }
+
+    private void restore(BookSnapshot snapshot) {
+        for (BookSnapshot.Entry entry : snapshot.entries()) {
+            long revision = revisions.incrementAndGet();
+            int[] rows = insertRows(entry.books(), entry.authorKey(), revision);
+            database.put(entry.authorKey(), AuthorEntry.of(entry.author(), rows, idsOf(entry.books()), revision));
+        }
+    }
+
+    private void maybeWriteSnapshot() {
+        if (!journal.isSnapshotDue() || !isSnapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                long lsn;
+                Map<String, AuthorEntry> authors = new LinkedHashMap<>(database.size());
+                // Only the LSN and the published entries are taken while writers are excluded, which doesn't depend on
+                // the number of books. Entries are immutable, so books added afterward aren't part of the snapshot.
+                snapshotLock.writeLock().lock();
+                try {
+                    lsn = journal.lastLsn();
+                    authors.putAll(database);
+                } finally {
+                    snapshotLock.writeLock().unlock();
+                }
+                // Updates replace rows in place, so a book may already show an update with a greater LSN. That update
+                // is replayed on top of the snapshot anyway and overwrites the book with the same content again.
+                List<BookSnapshot.Entry> entries = new ArrayList<>(authors.size());
+                authors.forEach((authorKey, entry) ->
+                        entries.add(new BookSnapshot.Entry(authorKey, entry.author(), booksOf(entry))));
+                journal.writeSnapshot(new BookSnapshot(lsn, entries));
+            } catch (RuntimeException e) {
+                log.error("Writing the book snapshot failed", e);
+            } finally {
+                isSnapshotRunning.set(false);
+            }
+        });
+    }
+
+    private Journaled<Revisioned<BookDTO>> update(BookDTO updatedBook, Set<Long> expectedRevisions) {
+        int row = table.findByTitle(updatedBook.getTitle());
+        if (row == BookTable.NOT_FOUND) {
+            return null;
+        }
+
+        String authorKey = table.ownerKeyOf(row);
+        return withAuthorLock(authorKey, () -> {
+            AuthorEntry entry = database.get(authorKey);
+            if (entry == null) {
+                return null;
+            }
+            // Re-read the book under the author's lock, so that concurrent updates don't get lost
+            if (expectedRevisions != null && !expectedRevisions.contains(table.revisionOf(row))) {
+                // Leaves the entry unchanged
+                throw new ConcurrentModificationException("Book was modified in the meantime");
+            }
+            BookDTO currentBook = table.get(row);
+            //only change isbn and pub date for simplicity
+            BookDTO bookToUpdate = BookDTO.builder()
+                    .id(currentBook.getId())
+                    .title(currentBook.getTitle())
+                    .author(updatedBook.getAuthor() != null ?
+                            updatedBook.getAuthor() : currentBook.getAuthor())
+                    .isbn(updatedBook.getIsbn())  //can change ISBN
+                    .publishedDate(updatedBook.getPublishedDate() != null ?
+                            updatedBook.getPublishedDate() : currentBook.getPublishedDate())
+                    .build();
+            long lsn = journal.append(BookMutation.updateBook(authorKey, bookToUpdate));
+            long revision = revisions.incrementAndGet();
+            table.replace(row, bookToUpdate, revision);
+            if (table.findById(bookToUpdate.getId()) == row) {
+                searchIndex.index(bookToUpdate);
+            }
+            database.put(authorKey, entry.withRevision(revision));
+            return new Journaled<>(new Revisioned<>(bookToUpdate, revision), lsn);
+        });
+    }
+
+    /**
+     * Runs a write to the author while holding the author's lock and the read lock of snapshots. The write journals
+     * its mutation and then publishes the new entry of the author with {@code database.put()}.
+     */
+    private <T> T withAuthorLock(String authorKey, Supplier<T> write) {
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (authorLocks.computeIfAbsent(authorKey, key -> new Object())) {
+                return write.get();
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private String authorKeyOf(BookDTO book) {
+        String authorKey = normalizeAuthorName(book.getAuthor());
+        return database.containsKey(authorKey) ? authorKey : UNKNOWN_AUTHOR_KEY;
+    }
+
+    private AuthorEntry findEntry(String authorName) {
+        return authorName == null ? null : database.get(normalizeAuthorName(authorName));
+    }
+
+    /**
+     * Publishes a new author with the given books, unless an author with the same name already exists.
+     *
+     * @return the LSN of the added author or {@link #NOT_WRITTEN} if the author already exists
+     */
+    private long putAuthor(AuthorDTO author, List<BookDTO> books) {
+        String authorKey = normalizeAuthorName(author.getName());
+        return withAuthorLock(authorKey, () -> {
+            if (database.containsKey(authorKey)) {
+                return NOT_WRITTEN;
+            }
+            long lsn = journal.append(BookMutation.addAuthor(authorKey, author, books));
+            long revision = revisions.incrementAndGet();
+            database.put(authorKey,
+                    AuthorEntry.of(author, insertRows(books, authorKey, revision), idsOf(books), revision));
+            return lsn;
+        });
+    }
+
+    /**
+     * Publishes a new version of the author with the books appended, all in one step. Books with a title the author
+     * already has (or that appears earlier in {@code books}) are rejected, except for the unknown author which collects
+     * books of any author.
+     *
+     * @return the rejected books, with the LSN of the accepted ones or {@link #NOT_WRITTEN} if all were rejected
+     */
+    private Journaled<List<BookDTO>> putBooks(String authorKey, List<BookDTO> books) {
+        boolean isUnknownAuthor = authorKey.equals(UNKNOWN_AUTHOR_KEY);
+        return withAuthorLock(authorKey, () -> {
+            AuthorEntry entry = database.get(authorKey);
+            AuthorEntry current = entry != null ? entry : AuthorEntry.of(UNKNOWN_AUTHOR, new int[0], new int[0], 0);
+            // Titles the author already has are looked up in the index of the table, so only the titles of this
+            // batch are collected
+            Set<String> titlesOfBatch = new HashSet<>();
+            List<BookDTO> rejected = new ArrayList<>();
+            List<BookDTO> accepted = new ArrayList<>(books.size());
+            for (BookDTO book : books) {
+                if (!isUnknownAuthor && book.getTitle() != null
+                        && (table.findByTitle(authorKey, book.getTitle()) != BookTable.NOT_FOUND
+                        || !titlesOfBatch.add(normalizeTitle(book.getTitle())))) {
+                    rejected.add(book);
+                } else {
+                    accepted.add(book);
                 }
             }
+            if (accepted.isEmpty()) {
+                return new Journaled<>(rejected, NOT_WRITTEN);
+            }
+            long lsn = journal.append(BookMutation.addBooks(authorKey, accepted));
+            long revision = revisions.incrementAndGet();
+            database.put(authorKey,
+                    current.withRows(insertRows(accepted, authorKey, revision), idsOf(accepted), revision));
+            return new Journaled<>(rejected, lsn);
+        });
+    }
+
+    /**
+     * @return the LSN of the book or {@link #NOT_WRITTEN} if the author already has a book with the same title
+     */
+    private long putBook(String authorKey, BookDTO book) {
+        return putBooks(authorKey, List.of(book)).lsn();
+    }
+
+    private void putBook(AuthorDTO author, BookDTO book) {
+        putBook(normalizeAuthorName(author.getName()), book);
+    }
+
+    /**
+     * Stores the books in the table and makes them searchable.
+     *
+     * @return the rows of the books, in the same order
+     */
+    private int[] insertRows(List<BookDTO> books, String authorKey, long revision) {
+        int[] rows = new int[books.size()];
+        for (int i = 0; i < rows.length; i++) {
+            BookDTO book = books.get(i);
+            rows[i] = table.insert(book, authorKey, revision);
+            // The first book wins, just like the first match did when the database was still scanned
+            if (table.findById(book.getId()) == rows[i]) {
+                searchIndex.index(book);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Ids are primitive, so a book sent without id arrives with id 0. It has to be rejected before anything is written,
+     * because every index and the journal rely on it.
+     */
+    private static boolean hasId(BookDTO book) {
+        return book.getId() > 0;
+    }
+
+    private static int[] idsOf(List<BookDTO> books) {
+        int[] ids = new int[books.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = books.get(i).getId();
         }
-        return Mono.empty();
+        return ids;
+    }
+
+    private List<BookDTO> booksOf(AuthorEntry entry) {
+        List<BookDTO> books = new ArrayList<>(entry.rowCount());
+        for (int i = 0; i < entry.rowCount(); i++) {
+            books.add(table.get(entry.rows()[i]));
+        }
+        return books;
+    }
+
+    private BookDTO bookAt(int row) {
+        return row == BookTable.NOT_FOUND ? null : table.get(row);
+    }
+
+    private static String normalizeTitle(String title) {
+        return BookTable.normalizeTitle(title);
+    }
+
+    private static String normalizeAuthorName(String authorName) {
+        return authorName.strip().toLowerCase(Locale.ROOT);
     }
 
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateoflux.utility.pair.PairFlux;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pairs orders with their last shipment using one bulk lookup per batch of orders instead of one lookup per order.
+ * <p>
+ * {@code PairFlux.zipWith(orders, order -> shipmentService.getLastShipmentByOrderId(order.getId()))} issues one call
+ * per order, i.e. N+1 queries against a real store. This loader collects the orders into batches, which are closed
+ * once they are full or once the batch window has passed, and resolves every batch with
+ * {@link ShipmentService#getLastShipmentsByOrderIds}. The orders keep their order.
+ */
+@Component
+public class LastShipmentLoader {
+
+    private final ShipmentService shipmentService;
+    private final int batchSize;
+    private final Duration batchWindow;
+
+    /**
+     * @param batchSize
+     *         maximum number of orders resolved with one call
+     * @param batchWindowMillis
+     *         how long to wait for further orders before an incomplete batch is resolved
+     */
+    public LastShipmentLoader(ShipmentService shipmentService,
+                              @Value("${hateoflux-demos.shipments.batch-size:100}") int batchSize,
+                              @Value("${hateoflux-demos.shipments.batch-window-millis:5}") long batchWindowMillis) {
+        this.shipmentService = shipmentService;
+        this.batchSize = batchSize;
+        this.batchWindow = Duration.ofMillis(batchWindowMillis);
+    }
+
+    /**
+     * @return the orders paired with their last shipment; orders without shipments are kept, just without shipment
+     */
+    public PairFlux<OrderDTO, ShipmentDTO> withLastShipments(Flux<OrderDTO> orders) {
+        // An order is only emitted after the shipments of its batch were loaded, so the lookup below always hits
+        Map<Integer, ShipmentDTO> loaded = new ConcurrentHashMap<>();
+        Flux<OrderDTO> loadedOrders = orders
+                // Fair backpressure, i.e. a batch closed by the timer waits for demand instead of failing
+                .bufferTimeout(batchSize, batchWindow, true)
+                .concatMap(batch -> shipmentService.getLastShipmentsByOrderIds(idsOf(batch))
+                        .doOnNext(loaded::putAll)
+                        .thenMany(Flux.fromIterable(batch)));
+        return PairFlux.zipWith(loadedOrders, order -> Mono.justOrEmpty(loaded.get(order.getId())));
+    }
+
+    private static List<Integer> idsOf(List<OrderDTO> orders) {
+        return orders.stream()
+                .map(OrderDTO::getId)
+                .toList();
+    }
+}
@@ -19,23 +19,320 @@
 package de.kamillionlabs.hateofluxdemos.service;
 
 import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderStatisticsDTO;
+import de.kamillionlabs.hateofluxdemos.storage.OrderColumns;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * @author Younes El Ouarti
  */
+@Slf4j
 @Component
 public class OrderService {
 
-    private final List<OrderDTO> database;
+    /**
+     * The first {@code size} elements of {@code positions} are positions of orders in the database. They never change
+     * once published, even though the array may be shared with later, longer versions.
+     */
+    private record Positions(int[] positions, int size) {
+
+        static final Positions EMPTY = new Positions(new int[0], 0);
+
+        int at(int i) {
+            return positions[i];
+        }
+    }
+
+    /**
+     * Positions sorted by one property as a large base and a small delta, both sorted ascending. Together they cover
+     * the first {@code size()} positions in insertion order. Views are never modified, writes replace them.
+     */
+    private record SortedView(int[] base, int[] delta) {
+
+        static final SortedView EMPTY = new SortedView(new int[0], new int[0]);
+
+        int size() {
+            return base.length + delta.length;
+        }
+    }
+
+    /**
+     * Positions of orders in the database, once in insertion order and once sorted by each sortable property. Ties are
+     * ordered by id, so that every order has a fixed place in each sort order.
+     * <p>
+     * Added positions are appended to a growable array. Each sorted view keeps a large base that writes never copy and
+     * a small delta that added positions are sorted and merged into. Reads merge base and delta while iterating over
+     * the requested range, so they neither lock nor copy the view. Once a delta outgrows {@link #MAX_DELTA_SIZE}, it is
+     * merged into the base in the background, like the tracking index of the {@link ShipmentService}.
+     */
+    private static final class OrderIndex {
+
+        private static final int BY_ID = 0;
+        private static final int BY_TOTAL = 1;
+        private static final int BY_STATUS = 2;
+
+        // Below this length, sorting is done by insertion
+        private static final int INSERTION_SORT_THRESHOLD = 16;
+
+        // Larger deltas are merged into the base; a write copies the delta of each view, so it has to stay small
+        private static final int MAX_DELTA_SIZE = 4096;
+
+        private static final Comparator<String> STATUS_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+        private final OrderColumns columns;
+        private final Lock writeLock;
+
+        // Written under the write lock of the service only, read through the published positions and views
+        private int[] positions = new int[8];
+        private int size;
+        private volatile Positions published = Positions.EMPTY;
+        private volatile SortedView[] sortedViews = {SortedView.EMPTY, SortedView.EMPTY, SortedView.EMPTY};
+
+        private final AtomicBoolean isMergeRunning = new AtomicBoolean();
+
+        /**
+         * @param writeLock
+         *         write lock of the service, under which positions are added and views are replaced
+         */
+        OrderIndex(OrderColumns columns, Lock writeLock) {
+            this.columns = columns;
+            this.writeLock = writeLock;
+        }
+
+        int size() {
+            return published.size();
+        }
+
+        Positions inInsertionOrder() {
+            return published;
+        }
+
+        /**
+         * @return the positions at {@code [offset, offset + limit)} when sorted by the property of {@code order} or in
+         * insertion order if {@code order} is {@code null}
+         */
+        int[] range(Sort.Order order, long offset, int limit) {
+            if (order == null) {
+                Positions current = published;
+                int from = (int) Math.min(offset, current.size());
+                int to = (int) Math.min(current.size(), from + (long) limit);
+                return Arrays.copyOfRange(current.positions(), from, to);
+            }
+            int view = switch (order.getProperty()) {
+                case "id" -> BY_ID;
+                case "total" -> BY_TOTAL;
+                case "status" -> BY_STATUS;
+                default -> throw new IllegalStateException("Unsupported sort property " + order.getProperty());
+            };
+            SortedView sorted = sortedViews[view];
+            int from = (int) Math.min(offset, sorted.size());
+            int to = (int) Math.min(sorted.size(), from + (long) limit);
+            if (order.isAscending()) {
+                return ascendingRange(sorted, view, from, to);
+            }
+            // Descending ranks are ascending ones counted from the end
+            int[] range = ascendingRange(sorted, view, sorted.size() - to, sorted.size() - from);
+            for (int i = 0, j = range.length - 1; i < j; i++, j--) {
+                int position = range[i];
+                range[i] = range[j];
+                range[j] = position;
+            }
+            return range;
+        }
+
+        /**
+         * Appends the position, which becomes visible with the next {@link #publish()}. Must be called under the write
+         * lock of the service.
+         */
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        /**
+         * Publishes the added positions and merges them into the delta of each sorted view. Must be called under the
+         * write lock of the service.
+         */
+        void publish() {
+            SortedView[] current = sortedViews;
+            SortedView[] updated = new SortedView[current.length];
+            for (int view = 0; view < current.length; view++) {
+                int[] added = sortedPositions(current[view].size(), view);
+                updated[view] = new SortedView(current[view].base(), merge(current[view].delta(), added, view));
+            }
+            published = new Positions(positions, size);
+            sortedViews = updated;
+            if (updated[BY_ID].delta().length > MAX_DELTA_SIZE) {
+                mergeDeltasInBackground();
+            }
+        }
+
+        /**
+         * Merges the delta of every view into its base off the calling thread. Positions added meanwhile form the new
+         * deltas.
+         */
+        private void mergeDeltasInBackground() {
+            if (!isMergeRunning.compareAndSet(false, true)) {
+                return;
+            }
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    SortedView[] snapshot = sortedViews;
+                    int[][] merged = new int[snapshot.length][];
+                    for (int view = 0; view < snapshot.length; view++) {
+                        merged[view] = merge(snapshot[view].base(), snapshot[view].delta(), view);
+                    }
+                    writeLock.lock();
+                    try {
+                        SortedView[] compacted = new SortedView[snapshot.length];
+                        for (int view = 0; view < snapshot.length; view++) {
+                            compacted[view] = new SortedView(merged[view], sortedPositions(merged[view].length, view));
+                        }
+                        sortedViews = compacted;
+                    } finally {
+                        writeLock.unlock();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Merging the sorted views of the order index failed", e);
+                } finally {
+                    isMergeRunning.set(false);
+                }
+            });
+        }
+
+        /**
+         * @return the positions added after the first {@code from} ones in insertion order, sorted for the view. Must
+         * be called under the write lock of the service.
+         */
+        private int[] sortedPositions(int from, int view) {
+            int[] added = Arrays.copyOfRange(positions, from, size);
+            sort(added, 0, added.length, new int[added.length], view);
+            return added;
+        }
+
+        /**
+         * @return the positions at the ascending ranks {@code [from, to)} of the view, merged from base and delta
+         */
+        private int[] ascendingRange(SortedView sorted, int view, int from, int to) {
+            int[] base = sorted.base();
+            int[] delta = sorted.delta();
+            // Finds how many of the first "from" positions come from the base: i from the base and from - i from the
+            // delta, such that the last ones taken are not greater than the first ones left
+            int low = Math.max(0, from - delta.length);
+            int high = Math.min(from, base.length);
+            while (low < high) {
+                int i = (low + high) >>> 1;
+                if (compare(view, base[i], delta[from - i - 1]) < 0) {
+                    low = i + 1;
+                } else {
+                    high = i;
+                }
+            }
+            int[] range = new int[to - from];
+            for (int i = low, j = from - low, k = 0; k < range.length; k++) {
+                range[k] = j == delta.length || (i < base.length && compare(view, base[i], delta[j]) <= 0)
+                        ? base[i++] : delta[j++];
+            }
+            return range;
+        }
+
+        private int[] merge(int[] a, int[] b, int view) {
+            if (b.length == 0) {
+                return a;
+            }
+            if (a.length == 0) {
+                return b;
+            }
+            int[] merged = new int[a.length + b.length];
+            for (int i = 0, j = 0, k = 0; k < merged.length; k++) {
+                merged[k] = j == b.length || (i < a.length && compare(view, a[i], b[j]) <= 0) ? a[i++] : b[j++];
+            }
+            return merged;
+        }
+
+        /**
+         * Merge sort of {@code a[from, to)} on primitive positions, using {@code buffer} of the same length as scratch
+         * space.
+         */
+        private void sort(int[] a, int from, int to, int[] buffer, int view) {
+            if (to - from < INSERTION_SORT_THRESHOLD) {
+                for (int i = from + 1; i < to; i++) {
+                    int position = a[i];
+                    int j = i - 1;
+                    while (j >= from && compare(view, a[j], position) > 0) {
+                        a[j + 1] = a[j];
+                        j--;
+                    }
+                    a[j + 1] = position;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            sort(a, from, middle, buffer, view);
+            sort(a, middle, to, buffer, view);
+            if (compare(view, a[middle - 1], a[middle]) <= 0) {
+                return;
+            }
+            System.arraycopy(a, from, buffer, from, to - from);
+            for (int i = from, j = middle, k = from; k < to; k++) {
+                a[k] = j == to || (i < middle && compare(view, buffer[i], buffer[j]) <= 0) ? buffer[i++] : buffer[j++];
+            }
+        }
+
+        private int compare(int view, int a, int b) {
+            int comparison = switch (view) {
+                case BY_TOTAL -> Double.compare(columns.totalAt(a), columns.totalAt(b));
+                case BY_STATUS -> STATUS_ORDER.compare(columns.statusAt(a), columns.statusAt(b));
+                default -> 0;
+            };
+            return comparison != 0 ? comparison : Integer.compare(columns.idAt(a), columns.idAt(b));
+        }
+    }
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "total", "status");
+
+    private static final String UNKNOWN_STATUS = "Unknown";
+
+    /**
+     * Append-only database; the position of an order never changes. Orders are appended under the write lock and
+     * before their positions are published through an index.
+     */
+    private final OrderColumns database = new OrderColumns();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Number of orders, i.e. the global counter. Only written under the write lock, but read without it.
+     */
+    private volatile int size;
+    private final OrderIndex index = new OrderIndex(database, lock.writeLock());
+    // Index of users without orders, never added to
+    private final OrderIndex emptyIndex = new OrderIndex(database, lock.writeLock());
+    /**
+     * Index per user; its size is the counter of the user's orders. Guarded by {@link #lock}.
+     */
+    private final LongObjectHashMap<OrderIndex> indexesByUserId = new LongObjectHashMap<>();
+    /**
+     * Position of every order by its id. Guarded by {@link #lock}.
+     */
+    private final IntIntHashMap positionsById = new IntIntHashMap();
 
     public OrderService() {
-        this.database = List.of(
+        append(List.of(
                 new OrderDTO(1234, 37L, 99.99, "Processing"),
                 new OrderDTO(1057, 37L, 72.48, "Delivered"),
                 new OrderDTO(9510, 37L, 199.99, "Returned"),
@@ -54,40 +351,181 @@ public class OrderService {
                 new OrderDTO(5078, 17L, 34.00, "Returned"),
                 new OrderDTO(5058, 38L, 149.99, "Delivered"),
                 new OrderDTO(7058, 98L, 34.00, "Delivered")
-        );
+        ));
     }
 
+    public Mono<OrderDTO> addOrder(OrderDTO order) {
+        Objects.requireNonNull(order, "Order cannot be null");
+        return addOrders(List.of(order)).thenReturn(order);
+    }
+
+    /**
+     * Adds all orders or, if any of their ids is already taken, none of them. The indexes are updated once per call,
+     * so adding many orders at once is considerably cheaper than adding them one by one.
+     */
+    public Mono<Void> addOrders(List<OrderDTO> orders) {
+        Objects.requireNonNull(orders, "Orders list cannot be null");
+        try {
+            append(orders);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        return Mono.empty();
+    }
 
     public Mono<OrderDTO> getOrder(int id) {
-        return database.stream().filter(order -> order.getId() == id).findFirst()
-                .map(Mono::just)
-                .orElseGet(Mono::empty);
+        int position = positionOf(id);
+        return position < 0 ? Mono.empty() : Mono.just(orderAt(position));
     }
 
     public Flux<OrderDTO> getOrdersByUserId(long userId) {
-        return Flux.fromStream(database.stream().filter(order -> order.getUserId() == userId));
+        Positions positions = indexOf(userId).inInsertionOrder();
+        return Flux.range(0, positions.size())
+                .map(i -> orderAt(positions.at(i)));
     }
 
+    /**
+     * Returns one page of the user's orders. The orders can be sorted by {@code id}, {@code total} and
+     * {@code status}. Only the first of these properties in the sort of {@code pageable} is used, other properties
+     * are ignored. Without any, the orders are returned in the order they were created.
+     */
     public Flux<OrderDTO> getOrdersByUserId(long userId, Pageable pageable) {
-        int pageSize = pageable.getPageSize();
-        return Flux.fromStream(database.stream().filter(order -> order.getUserId() == userId)
-                .limit(pageSize));
+        return page(indexOf(userId), pageable);
     }
 
+    /**
+     * Same as {@link #getOrdersByUserId(long, Pageable)}, but for all orders if {@code userId} is {@code null}.
+     */
     public Flux<OrderDTO> getOrders(Long userId, Pageable pageable) {
-        //for simplicity, we ignore the sorting
-        int pageSize = pageable.getPageSize();
-        return userId == null ? Flux.fromStream(database.stream().limit(pageSize))
-                : getOrdersByUserId(userId).take(pageSize);
+        return page(userId == null ? index : indexOf(userId), pageable);
+    }
+
+    /**
+     * Emits all orders or, if {@code userId} is given, the orders of that user in the order they were created. Orders
+     * are only read once they are requested, so that exports of any size don't buffer. The set of orders is fixed on
+     * subscription, orders added later are not emitted.
+     */
+    public Flux<OrderDTO> getAllOrders(Long userId) {
+        return Flux.defer(() -> {
+            Positions positions = (userId == null ? index : indexOf(userId)).inInsertionOrder();
+            return Flux.range(0, positions.size())
+                    .map(i -> orderAt(positions.at(i)));
+        });
     }
 
     public Mono<Long> countAllOrdersByUserId(long userId) {
-        return Mono.just(database.stream().filter(order -> order.getUserId() == userId)
-                .count());
+        return Mono.just((long) indexOf(userId).size());
     }
 
     public Mono<Long> countAllOrders(Long userId) {
+        return userId == null ? Mono.just((long) size) : countAllOrdersByUserId(userId);
+    }
+
+    /**
+     * Aggregates revenue, average order value and the number of orders per status over all orders or, if
+     * {@code userId} is given, over the orders of that user. The scan runs in parallel and off the calling thread.
+     */
+    public Mono<OrderStatisticsDTO> getStatistics(Long userId) {
+        return Mono.fromCallable(() -> {
+                    Positions positionsOfUser = userId == null ? null : indexOf(userId).inInsertionOrder();
+                    OrderColumns.Aggregate aggregate = userId == null
+                            ? database.aggregate(size)
+                            : database.aggregate(Arrays.copyOf(positionsOfUser.positions(), positionsOfUser.size()));
+                    Map<String, Long> ordersByStatus = new TreeMap<>();
+                    long[] counts = aggregate.countsByStatusCode();
+                    for (int code = 0; code < counts.length; code++) {
+                        if (counts[code] > 0) {
+                            String status = Objects.requireNonNullElse(database.statusOf(code), UNKNOWN_STATUS);
+                            ordersByStatus.merge(status, counts[code], Long::sum);
+                        }
+                    }
+                    return OrderStatisticsDTO.builder()
+                            .userId(userId)
+                            .orderCount(aggregate.count())
+                            .revenue(aggregate.revenue())
+                            .averageOrderValue(aggregate.count() == 0 ? 0 : aggregate.revenue() / aggregate.count())
+                            .ordersByStatus(ordersByStatus)
+                            .build();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private OrderIndex indexOf(long userId) {
+        lock.readLock().lock();
+        try {
+            return indexesByUserId.getOrDefault(userId, emptyIndex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the position of the order with {@code id} or {@code -1} if there is none
+     */
+    private int positionOf(int id) {
+        lock.readLock().lock();
+        try {
+            return positionsById.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private OrderDTO orderAt(int position) {
+        return database.get(position);
+    }
+
+    /**
+     * Reads the page as a range of the sorted index, i.e. only the orders on the page are touched.
+     */
+    private Flux<OrderDTO> page(OrderIndex orderIndex, Pageable pageable) {
+        Sort.Order order = pageable.getSort().stream()
+                .filter(o -> SORTABLE_PROPERTIES.contains(o.getProperty()))
+                .findFirst()
+                .orElse(null);
+        int[] positions = orderIndex.range(order, pageable.getOffset(), pageable.getPageSize());
+        return Flux.range(0, positions.length)
+                .map(i -> orderAt(positions[i]));
+    }
+
+    /**
+     * Appends {@code orders} to the database and updates the global index, the indexes of the affected users and
+     * thereby all counters.
+     *
+     * @throws IllegalArgumentException
+     *         if an id is taken, either by an existing order or by another one in {@code orders}
+     */
+    private void append(List<OrderDTO> orders) {
+        lock.writeLock().lock();
+        try {
+            IntIntHashMap batch = new IntIntHashMap(orders.size());
+            for (OrderDTO order : orders) {
+                Objects.requireNonNull(order, "Order cannot be null");
+                if (batch.put(order.getId(), 0) != IntIntHashMap.NO_VALUE
+                        || positionsById.get(order.getId()) != IntIntHashMap.NO_VALUE) {
+                    throw new IllegalArgumentException("Order " + order.getId() + " already exists");
+                }
+            }
+
+            Set<OrderIndex> changedIndexes = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (OrderDTO order : orders) {
+                int position = database.append(order);
+                positionsById.put(order.getId(), position);
+                index.add(position);
+                OrderIndex indexOfUser = indexesByUserId.get(order.getUserId());
+                if (indexOfUser == null) {
+                    indexOfUser = new OrderIndex(database, lock.writeLock());
+                    indexesByUserId.put(order.getUserId(), indexOfUser);
+                }
+                indexOfUser.add(position);
+                changedIndexes.add(indexOfUser);
+            }
 
-        return userId == null ? Mono.just((long) database.size()) : countAllOrdersByUserId(userId);
+            changedIndexes.forEach(OrderIndex::publish);
+            index.publish();
+            size = index.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+/**
+ * A value together with its revision. The revision changes whenever the value changes and is never reused, not even
+ * after a restart.
+ */
+public record Revisioned<T>(T value, long revision) {
+}
@@ -21,23 +21,354 @@ package de.kamillionlabs.hateofluxdemos.service;
 import de.kamillionlabs.hateoflux.utility.pair.Pair;
 import de.kamillionlabs.hateoflux.utility.pair.PairList;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 /**
  * @author Younes El Ouarti
  */
+@Slf4j
 @Service
 public class ShipmentService {
 
-    PairList<Integer, ShipmentDTO> database = new PairList<>();
+    /**
+     * Normalized tracking numbers in ascending order and the ids of their shipments at the same positions. Runs are
+     * never modified.
+     */
+    private record Run(String[] trackingNumbers, int[] shipmentIds) {
+
+        static final Run EMPTY = new Run(new String[0], new int[0]);
+
+        /**
+         * @return a run of the tracking numbers of {@code shipments}; shipments with the same tracking number stay in
+         * the given order
+         */
+        static Run of(List<ShipmentDTO> shipments) {
+            ShipmentDTO[] sorted = shipments.stream()
+                    .filter(shipment -> shipment.getTrackingNumber() != null)
+                    .sorted(Comparator.comparing(shipment -> TrackingIndex.normalize(shipment.getTrackingNumber())))
+                    .toArray(ShipmentDTO[]::new);
+            String[] trackingNumbers = new String[sorted.length];
+            int[] shipmentIds = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                trackingNumbers[i] = TrackingIndex.normalize(sorted[i].getTrackingNumber());
+                shipmentIds[i] = sorted[i].getId();
+            }
+            return new Run(trackingNumbers, shipmentIds);
+        }
+
+        /**
+         * Merges the runs into one. Equal tracking numbers are ordered like the runs they come from.
+         */
+        static Run merge(List<Run> runs) {
+            int size = runs.stream().mapToInt(Run::size).sum();
+            String[] trackingNumbers = new String[size];
+            int[] shipmentIds = new int[size];
+            int[] cursors = new int[runs.size()];
+            for (int k = 0; k < size; k++) {
+                int next = smallest(runs, cursors, null);
+                trackingNumbers[k] = runs.get(next).trackingNumbers()[cursors[next]];
+                shipmentIds[k] = runs.get(next).shipmentIds()[cursors[next]++];
+            }
+            return new Run(trackingNumbers, shipmentIds);
+        }
+
+        /**
+         * @param prefix
+         *         only runs whose tracking number at the cursor starts with the prefix are considered, unless
+         *         {@code null}
+         * @return the index of the run with the smallest tracking number at its cursor, the first of them if several
+         * are equal, or {@code -1} if there is none
+         */
+        static int smallest(List<Run> runs, int[] cursors, String prefix) {
+            int smallest = -1;
+            for (int i = 0; i < runs.size(); i++) {
+                Run run = runs.get(i);
+                if (cursors[i] == run.size()
+                        || prefix != null && !run.trackingNumbers()[cursors[i]].startsWith(prefix)) {
+                    continue;
+                }
+                if (smallest < 0 || run.trackingNumbers()[cursors[i]]
+                        .compareTo(runs.get(smallest).trackingNumbers()[cursors[smallest]]) < 0) {
+                    smallest = i;
+                }
+            }
+            return smallest;
+        }
+
+        int size() {
+            return trackingNumbers.length;
+        }
+
+        /**
+         * @return the first position whose tracking number is not less than {@code trackingNumber}
+         */
+        int lowerBound(String trackingNumber) {
+            int low = 0;
+            int high = trackingNumbers.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (trackingNumbers[middle].compareTo(trackingNumber) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Tracking numbers of all shipments as a large sorted base run and small sorted delta runs, one per call of
+     * {@link #addShipments(PairList)}. Adding shipments only sorts the added ones, the base is never copied on the
+     * write path. Deltas are merged in the background, into one delta while they are small compared to the base and
+     * into the base otherwise, so that lookups only search a few runs. Shipments are resolved through
+     * {@link #shipmentsById}, so status updates don't affect this index.
+     */
+    private record TrackingIndex(Run base, List<Run> deltas) {
+
+        static final TrackingIndex EMPTY = new TrackingIndex(Run.EMPTY, List.of());
+
+        // More deltas than this make lookups noticeably slower
+        private static final int MAX_DELTAS = 8;
+
+        // Deltas are merged into the base once they are larger than this or than an eighth of the base
+        private static final int MIN_BASE_MERGE_SIZE = 4096;
+
+        /**
+         * @return a new index that additionally contains {@code added} as its newest delta
+         */
+        TrackingIndex with(Run added) {
+            if (added.size() == 0) {
+                return this;
+            }
+            if (base.size() == 0 && deltas.isEmpty()) {
+                return new TrackingIndex(added, List.of());
+            }
+            List<Run> newDeltas = new ArrayList<>(deltas.size() + 1);
+            newDeltas.addAll(deltas);
+            newDeltas.add(added);
+            return new TrackingIndex(base, newDeltas);
+        }
+
+        boolean needsCompaction() {
+            return deltas.size() > MAX_DELTAS || isBaseMergeDue();
+        }
+
+        boolean isBaseMergeDue() {
+            int deltaSize = deltas.stream().mapToInt(Run::size).sum();
+            return deltaSize > Math.max(MIN_BASE_MERGE_SIZE, base.size() / 8);
+        }
+
+        /**
+         * @param merged
+         *         the first {@code mergedDeltas} deltas of this index merged into one run, together with the base if
+         *         {@code includesBase}
+         * @return this index with the merged run in place of the runs it was merged from
+         */
+        TrackingIndex compacted(Run merged, int mergedDeltas, boolean includesBase) {
+            List<Run> newDeltas = new ArrayList<>(deltas.size() - mergedDeltas + 1);
+            if (!includesBase) {
+                newDeltas.add(merged);
+            }
+            newDeltas.addAll(deltas.subList(mergedDeltas, deltas.size()));
+            return new TrackingIndex(includesBase ? merged : base, newDeltas);
+        }
+
+        /**
+         * @return base and deltas, oldest first
+         */
+        List<Run> runs() {
+            List<Run> runs = new ArrayList<>(deltas.size() + 1);
+            runs.add(base);
+            runs.addAll(deltas);
+            return runs;
+        }
+
+        /**
+         * @return the id of the first shipment added with the tracking number or {@code null} if there is none
+         */
+        Integer find(String trackingNumber) {
+            for (Run run : runs()) {
+                int position = run.lowerBound(trackingNumber);
+                if (position < run.size() && run.trackingNumbers()[position].equals(trackingNumber)) {
+                    return run.shipmentIds()[position];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the ids of up to {@code limit} shipments whose tracking number starts with {@code prefix}, ordered
+         * by tracking number
+         */
+        int[] findByPrefix(String prefix, int limit) {
+            List<Run> runs = runs();
+            int[] cursors = new int[runs.size()];
+            for (int i = 0; i < cursors.length; i++) {
+                cursors[i] = runs.get(i).lowerBound(prefix);
+            }
+            int[] shipmentIds = new int[Math.max(0, limit)];
+            int count = 0;
+            int next;
+            while (count < shipmentIds.length && (next = Run.smallest(runs, cursors, prefix)) >= 0) {
+                shipmentIds[count++] = runs.get(next).shipmentIds()[cursors[next]++];
+            }
+            return Arrays.copyOf(shipmentIds, count);
+        }
+
+        static String normalize(String trackingNumber) {
+            return trackingNumber.strip().toUpperCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Keeps only the latest change of every shipment until the subscriber requests it. A slow subscriber thereby
+     * neither holds up writers nor loses the last status of one shipment because another shipment changed. Changes are
+     * delivered in the order in which their shipments changed first since they were last delivered.
+     */
+    private static final class LatestPerShipment {
+
+        private final FluxSink<ShipmentDTO> sink;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // Both guarded by "this"
+        private final Map<Integer, ShipmentStatusChange> pending = new LinkedHashMap<>();
+        private final Map<Integer, Long> latestVersions = new HashMap<>();
+
+        LatestPerShipment(FluxSink<ShipmentDTO> sink) {
+            this.sink = sink;
+        }
+
+        void offer(ShipmentStatusChange change) {
+            synchronized (this) {
+                int shipmentId = change.shipment().getId();
+                Long latestVersion = latestVersions.get(shipmentId);
+                if (latestVersion != null && latestVersion > change.version()) {
+                    // Changes are emitted after the write lock is released, so a newer one may overtake an older one
+                    return;
+                }
+                latestVersions.put(shipmentId, change.version());
+                pending.put(shipmentId, change);
+            }
+            drain();
+        }
+
+        /**
+         * Delivers pending changes as long as there is demand. Only one thread drains at a time; offers and requests
+         * arriving meanwhile make it loop again.
+         */
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                ShipmentDTO next;
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled() && (next = poll()) != null) {
+                    sink.next(next);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private synchronized ShipmentDTO poll() {
+            Iterator<ShipmentStatusChange> changes = pending.values().iterator();
+            if (!changes.hasNext()) {
+                return null;
+            }
+            ShipmentDTO shipment = changes.next().shipment();
+            changes.remove();
+            return shipment;
+        }
+    }
+
+    /**
+     * Subscriber of {@link #statusChanges}, reachable without the sink for changes the sink couldn't emit.
+     */
+    private record StatusSubscriber(Predicate<ShipmentStatusChange> filter, LatestPerShipment latest) {
+
+        void offerIfMatching(ShipmentStatusChange change) {
+            if (filter.test(change)) {
+                latest.offer(change);
+            }
+        }
+    }
+
+    private static final ShipmentDTO[] NO_SHIPMENTS = new ShipmentDTO[0];
+
+    /**
+     * Shipments by their id. If several shipments share an id, the first one added wins.
+     */
+    private final Map<Integer, ShipmentDTO> shipmentsById = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Shipments of each order sorted by id, so the last one is the latest shipment of the order. The arrays are
+     * never modified, writes replace them. Guarded by {@link #lock}.
+     */
+    private final LongObjectHashMap<ShipmentDTO[]> shipmentsByOrderId = new LongObjectHashMap<>();
+
+    /**
+     * Order of each shipment in {@link #shipmentsById}. Guarded by {@link #lock}.
+     */
+    private final Map<Integer, Integer> orderIdsByShipmentId = new HashMap<>();
+
+    /**
+     * Written under the write lock of {@link #lock}, read without it.
+     */
+    private volatile TrackingIndex trackingIndex = TrackingIndex.EMPTY;
+    private final AtomicBoolean isCompactionRunning = new AtomicBoolean();
+
+    /**
+     * Incremented with every status change. Guarded by {@link #lock}.
+     */
+    private long statusVersion;
+
+    /**
+     * Status changes of all shipments. Slow subscribers miss changes rather than slowing down writers, see
+     * {@link #getStatusChanges(int)}.
+     */
+    private final Sinks.Many<ShipmentStatusChange> statusChanges = Sinks.many().multicast().directBestEffort();
+    private final List<StatusSubscriber> statusSubscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Number of changes that collided with the emission of another thread and were handed to the subscribers
+     * directly.
+     */
+    private final AtomicLong collidedEmissions = new AtomicLong();
 
     public ShipmentService() {
+        PairList<Integer, ShipmentDTO> database = new PairList<>();
         //shipment by order id
         database.add(1234, new ShipmentDTO(127, "UPS", "154-ASD-1238724", "Completed"));
         database.add(1057, new ShipmentDTO(105, "UPS", "154-ASD-1284724", "Completed"));
@@ -72,38 +403,303 @@ public class ShipmentService {
         database.add(1070, new ShipmentDTO(2551, "UPS", "610-UPS-3748291", "Completed"));
         database.add(1070, new ShipmentDTO(3904, "DHL", "680-DHL-9182736", "Completed"));
 
+        addShipments(database);
     }
 
+    /**
+     * Adds shipments in bulk. The shipments of every affected order are merged and sorted once per call.
+     *
+     * @param shipments
+     *         shipments keyed by the id of their order
+     */
+    public void addShipments(PairList<Integer, ShipmentDTO> shipments) {
+        Objects.requireNonNull(shipments, "Shipments cannot be null");
+        LongObjectHashMap<List<ShipmentDTO>> addedByOrderId = new LongObjectHashMap<>();
+        List<Integer> orderIds = new ArrayList<>();
+        for (Pair<Integer, ShipmentDTO> pair : shipments) {
+            List<ShipmentDTO> added = addedByOrderId.get(pair.left());
+            if (added == null) {
+                added = new ArrayList<>();
+                addedByOrderId.put(pair.left(), added);
+                orderIds.add(pair.left());
+            }
+            added.add(pair.right());
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<ShipmentDTO> indexed = new ArrayList<>();
+            for (Integer orderId : orderIds) {
+                List<ShipmentDTO> added = addedByOrderId.get(orderId);
+                ShipmentDTO[] existing = shipmentsByOrderId.getOrDefault(orderId, NO_SHIPMENTS);
+                ShipmentDTO[] merged = Arrays.copyOf(existing, existing.length + added.size());
+                for (int i = 0; i < added.size(); i++) {
+                    merged[existing.length + i] = added.get(i);
+                }
+                // Stable, i.e. shipments with the same id stay in the order they were added
+                Arrays.sort(merged, Comparator.comparingInt(ShipmentDTO::getId));
+                shipmentsByOrderId.put(orderId, merged);
+                for (ShipmentDTO shipment : added) {
+                    if (index(orderId, shipment)) {
+                        indexed.add(shipment);
+                    }
+                }
+            }
+            trackingIndex = trackingIndex.with(Run.of(indexed));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        maybeCompactTrackingIndex();
+    }
+
+    /**
+     * @return the shipments of the order sorted by id
+     */
     public Flux<ShipmentDTO> getShipmentsByOrderId(Integer orderId) {
-        return Flux.fromIterable(database.stream().filter(pair -> pair.left().equals(orderId))
-                .map(Pair::right)
-                .toList());
+        return Flux.defer(() -> Flux.fromArray(shipmentsOf(orderId)));
     }
 
+    /**
+     * @return the shipment of the order with the highest id; a single lookup, no matter how many shipments exist
+     */
     public Mono<ShipmentDTO> getLastShipmentByOrderId(Integer orderId) {
-        return database.stream().filter(pair -> pair.left().equals(orderId))
-                .map(Pair::getRight)
-                .max(Comparator.comparingInt(ShipmentDTO::getId))
-                .map(Mono::just)
-                .orElse(Mono.empty());
+        return Mono.fromSupplier(() -> {
+            ShipmentDTO[] shipments = shipmentsOf(orderId);
+            return shipments.length == 0 ? null : shipments[shipments.length - 1];
+        });
     }
 
 
+    /**
+     * Bulk variant of {@link #getLastShipmentByOrderId(Integer)} that resolves all orders with one call.
+     *
+     * @return the last shipment by order id; orders without shipments are missing
+     */
+    public Mono<Map<Integer, ShipmentDTO>> getLastShipmentsByOrderIds(Collection<Integer> orderIds) {
+        Objects.requireNonNull(orderIds, "Order ids cannot be null");
+        return Mono.fromSupplier(() -> {
+            Map<Integer, ShipmentDTO> lastShipments = new HashMap<>();
+            lock.readLock().lock();
+            try {
+                for (Integer orderId : orderIds) {
+                    ShipmentDTO[] shipments = orderId == null
+                            ? NO_SHIPMENTS
+                            : shipmentsByOrderId.getOrDefault(orderId, NO_SHIPMENTS);
+                    if (shipments.length > 0) {
+                        lastShipments.put(orderId, shipments[shipments.length - 1]);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return lastShipments;
+        });
+    }
+
     public Flux<ShipmentDTO> getShipments(Integer... shipmentIds) {
-        return Flux.fromStream(
-                database.stream()
-                        .filter(pair -> Set.of(shipmentIds).contains(pair.right().getId()))
-                        .map(Pair::right)
-        );
+        return getShipments(Arrays.asList(shipmentIds));
+    }
+
+    /**
+     * Looks up each of the ids once, i.e. the cost only depends on the number of ids.
+     *
+     * @return the shipments in the order of their first occurrence in {@code shipmentIds}; unknown ids and
+     * duplicates as well as {@code null}s are skipped
+     */
+    public Flux<ShipmentDTO> getShipments(Collection<Integer> shipmentIds) {
+        Objects.requireNonNull(shipmentIds, "Shipment ids cannot be null");
+        Set<Integer> distinctIds = new LinkedHashSet<>(shipmentIds);
+        distinctIds.remove(null);
+        return Flux.fromIterable(distinctIds)
+                .mapNotNull(shipmentsById::get);
     }
 
     public Mono<ShipmentDTO> getShipment(Integer shipmentId) {
-        return database.stream()
-                .filter(pair -> Objects.equals(shipmentId, pair.right().getId()))
-                .findFirst()
-                .map(p -> Mono.just(p.right()))
-                .orElse(Mono.empty());
+        return Mono.justOrEmpty(shipmentId).mapNotNull(shipmentsById::get);
     }
 
+    private ShipmentDTO[] shipmentsOf(Integer orderId) {
+        if (orderId == null) {
+            return NO_SHIPMENTS;
+        }
+        lock.readLock().lock();
+        try {
+            return shipmentsByOrderId.getOrDefault(orderId, NO_SHIPMENTS);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
+    /**
+     * Looks the shipment up by its tracking number, e.g. {@code 154-ASD-1238724}. Case and surrounding whitespace
+     * are ignored.
+     */
+    public Mono<ShipmentDTO> getShipmentByTrackingNumber(String trackingNumber) {
+        Objects.requireNonNull(trackingNumber, "Tracking number cannot be null");
+        return Mono.fromSupplier(() -> {
+            Integer shipmentId = trackingIndex.find(TrackingIndex.normalize(trackingNumber));
+            return shipmentId == null ? null : shipmentsById.get(shipmentId);
+        });
+    }
+
+    /**
+     * @return up to {@code limit} shipments whose tracking number starts with {@code prefix}, ordered by tracking
+     * number; case and surrounding whitespace are ignored
+     */
+    public Flux<ShipmentDTO> getShipmentsByTrackingNumberPrefix(String prefix, int limit) {
+        Objects.requireNonNull(prefix, "Prefix cannot be null");
+        return Flux.defer(() -> Flux.fromStream(Arrays.stream(trackingIndex
+                        .findByPrefix(TrackingIndex.normalize(prefix), limit))
+                .mapToObj(shipmentsById::get)));
+    }
+
+    /**
+     * @return the id of the order the shipment belongs to
+     */
+    public Mono<Integer> getOrderIdOfShipment(int shipmentId) {
+        return Mono.fromSupplier(() -> {
+            lock.readLock().lock();
+            try {
+                return orderIdsByShipmentId.get(shipmentId);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Sets the status of the shipment and publishes the change to the subscribers of {@link #getStatusChanges(int)}
+     * and {@link #getStatusChangesOfOrder(int)}.
+     *
+     * @return the updated shipment or empty if there is no shipment with {@code shipmentId}
+     */
+    public Mono<ShipmentDTO> updateShipmentStatus(int shipmentId, String status) {
+        Objects.requireNonNull(status, "Status cannot be null");
+        ShipmentStatusChange change;
+        lock.writeLock().lock();
+        try {
+            ShipmentDTO shipment = shipmentsById.get(shipmentId);
+            if (shipment == null) {
+                return Mono.empty();
+            }
+            // Shipments are shared with readers, so they are replaced rather than modified
+            ShipmentDTO updated = new ShipmentDTO(shipment.getId(), shipment.getCarrier(),
+                    shipment.getTrackingNumber(), status);
+            int orderId = orderIdsByShipmentId.get(shipmentId);
+            ShipmentDTO[] shipmentsOfOrder = shipmentsByOrderId.get(orderId).clone();
+            for (int i = 0; i < shipmentsOfOrder.length; i++) {
+                if (shipmentsOfOrder[i] == shipment) {
+                    shipmentsOfOrder[i] = updated;
+                }
+            }
+            shipmentsByOrderId.put(orderId, shipmentsOfOrder);
+            shipmentsById.put(shipmentId, updated);
+            change = new ShipmentStatusChange(orderId, updated, ++statusVersion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Without subscribers the change is simply dropped
+        Sinks.EmitResult result = statusChanges.tryEmitNext(change);
+        if (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            // Another thread is emitting. Instead of spinning until it is done, the change is offered to every
+            // subscriber directly, where it is coalesced with the other changes of the shipment
+            long collisions = collidedEmissions.incrementAndGet();
+            log.debug("Status change of shipment {} collided with another emission ({} so far)",
+                    change.shipment().getId(), collisions);
+            statusSubscribers.forEach(subscriber -> subscriber.offerIfMatching(change));
+        } else if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("Status change of shipment {} was not emitted: {}", change.shipment().getId(), result);
+        }
+        return Mono.just(change.shipment());
+    }
+
+    /**
+     * Emits the shipment every time its status changes, starting with the next change. A subscriber that can't keep
+     * up only gets the latest change once it requests again, i.e. changes are coalesced but writers never wait.
+     */
+    public Flux<ShipmentDTO> getStatusChanges(int shipmentId) {
+        return latestPerShipment(change -> change.shipment().getId() == shipmentId);
+    }
+
+    /**
+     * Same as {@link #getStatusChanges(int)}, but for all shipments of the order. Changes are coalesced per shipment,
+     * so a slow subscriber still gets the latest status of every shipment that changed.
+     */
+    public Flux<ShipmentDTO> getStatusChangesOfOrder(int orderId) {
+        return latestPerShipment(change -> change.orderId() == orderId);
+    }
+
+    private Flux<ShipmentDTO> latestPerShipment(Predicate<ShipmentStatusChange> filter) {
+        return Flux.create(sink -> {
+            StatusSubscriber subscriber = new StatusSubscriber(filter, new LatestPerShipment(sink));
+            sink.onRequest(n -> subscriber.latest().drain());
+            Disposable subscription = statusChanges.asFlux()
+                    .filter(filter)
+                    .subscribe(subscriber.latest()::offer);
+            statusSubscribers.add(subscriber);
+            sink.onDispose(() -> {
+                statusSubscribers.remove(subscriber);
+                subscription.dispose();
+            });
+        });
+    }
+
+    /**
+     * @return the number of status changes that collided with the emission of another thread so far
+     */
+    long collidedEmissions() {
+        return collidedEmissions.get();
+    }
+
+    /**
+     * Merges the deltas of the tracking index off the calling thread, if due. Shipments added meanwhile become new
+     * deltas of the compacted index.
+     */
+    private void maybeCompactTrackingIndex() {
+        if (!trackingIndex.needsCompaction() || !isCompactionRunning.compareAndSet(false, true)) {
+            return;
+        }
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                TrackingIndex snapshot = trackingIndex;
+                if (!snapshot.needsCompaction()) {
+                    return;
+                }
+                boolean includesBase = snapshot.isBaseMergeDue();
+                Run merged = Run.merge(includesBase ? snapshot.runs() : snapshot.deltas());
+                lock.writeLock().lock();
+                try {
+                    // Deltas are only ever appended by writers, so the snapshot's deltas are still the first ones
+                    trackingIndex = trackingIndex.compacted(merged, snapshot.deltas().size(), includesBase);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (RuntimeException e) {
+                log.error("Compacting the tracking index failed", e);
+            } finally {
+                isCompactionRunning.set(false);
+            }
+            // Shipments may have been added while merging
+            maybeCompactTrackingIndex();
+        });
+    }
+
+    /**
+     * @return whether the shipment was indexed, i.e. whether its id wasn't taken yet
+     */
+    private boolean index(int orderId, ShipmentDTO shipment) {
+        if (shipmentsById.putIfAbsent(shipment.getId(), shipment) == null) {
+            orderIdsByShipmentId.put(shipment.getId(), orderId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param version
+     *         orders the changes of a shipment, even if they are emitted out of order
+     */
+    private record ShipmentStatusChange(int orderId, ShipmentDTO shipment, long version) {
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of distinct {@code long} keys in ascending order. The keys are kept in a few sorted runs instead of one
+ * array, so that adding keys doesn't copy all existing ones. Runs are merged like the digits of a binary counter: a new
+ * run is merged with the previous one for as long as the previous one is less than twice as large. Thus there are at
+ * most log2(n) + 1 runs, in order of decreasing size, and every key is copied O(log n) times overall, no matter in
+ * which order the keys are added.
+ */
+final class SortedLongRuns {
+
+    static final SortedLongRuns EMPTY = new SortedLongRuns(new long[0][], 0);
+
+    private final long[][] runs;
+    private final int size;
+
+    private SortedLongRuns(long[][] runs, int size) {
+        this.runs = runs;
+        this.size = size;
+    }
+
+    /**
+     * @param keys
+     *         keys that are not contained yet; the array is sorted in place and must not be modified afterward
+     * @return a copy with the keys added
+     */
+    SortedLongRuns with(long[] keys) {
+        if (keys.length == 0) {
+            return this;
+        }
+        Arrays.sort(keys);
+        long[][] newRuns = Arrays.copyOf(runs, runs.length + 1);
+        int count = runs.length;
+        long[] run = keys;
+        while (count > 0 && newRuns[count - 1].length < 2 * run.length) {
+            run = merge(newRuns[count - 1], run);
+            count--;
+        }
+        newRuns[count] = run;
+        return new SortedLongRuns(Arrays.copyOf(newRuns, count + 1), size + keys.length);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the smallest keys, at most {@code limit} of them, in ascending order
+     */
+    long[] first(int limit) {
+        return window(new int[runs.length], limit);
+    }
+
+    /**
+     * @return the smallest keys greater than {@code key}, at most {@code limit} of them, in ascending order
+     */
+    long[] after(long key, int limit) {
+        int[] positions = new int[runs.length];
+        for (int r = 0; r < runs.length; r++) {
+            int index = Arrays.binarySearch(runs[r], key);
+            positions[r] = index >= 0 ? index + 1 : -index - 1;
+        }
+        return window(positions, limit);
+    }
+
+    private long[] window(int[] positions, int limit) {
+        long remaining = 0;
+        for (int r = 0; r < runs.length; r++) {
+            remaining += runs[r].length - positions[r];
+        }
+        long[] window = new long[(int) Math.min(limit, remaining)];
+        for (int i = 0; i < window.length; i++) {
+            int smallest = -1;
+            for (int r = 0; r < runs.length; r++) {
+                if (positions[r] < runs[r].length
+                        && (smallest < 0 || runs[r][positions[r]] < runs[smallest][positions[smallest]])) {
+                    smallest = r;
+                }
+            }
+            window[i] = runs[smallest][positions[smallest]++];
+        }
+        return window;
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        for (int i = 0, j = 0, k = 0; k < merged.length; k++) {
+            merged[k] = j == b.length || (i < a.length && a[i] < b[j]) ? a[i++] : b[j++];
+        }
+        return merged;
+    }
+}
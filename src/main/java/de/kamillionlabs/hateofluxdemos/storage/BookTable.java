@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.storage;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+
+import java.util.Locale;
+
+/**
+ * Row storage for books. Every book gets a row number when it is inserted, which never changes afterward. Lookups by
+ * id and by title are answered by indexes of the table. If several books share an id or a title, the one inserted
+ * first is found.
+ * <p>
+ * Writers have to be serialized per row by the caller. Inserts may happen concurrently.
+ */
+public interface BookTable {
+
+    int NOT_FOUND = -1;
+
+    /**
+     * @param book
+     *         book to store
+     * @param ownerKey
+     *         key of the author the book is filed under
+     * @param revision
+     *         revision of the book
+     * @return the row of the book
+     */
+    int insert(BookDTO book, String ownerKey, long revision);
+
+    /**
+     * Replaces the book stored in {@code row} and its revision. Id and title of the book must not change.
+     */
+    void replace(int row, BookDTO book, long revision);
+
+    /**
+     * @return a {@link BookDTO} with the current content of the row
+     */
+    BookDTO get(int row);
+
+    String ownerKeyOf(int row);
+
+    long revisionOf(int row);
+
+    /**
+     * @return the row of the first book with the given id or {@link #NOT_FOUND}
+     */
+    int findById(int id);
+
+    /**
+     * @return the row of the first book with the given title, ignoring case, or {@link #NOT_FOUND}
+     */
+    int findByTitle(String title);
+
+    /**
+     * @return the row of the first book with the given title, ignoring case, that is filed under the given owner or
+     * {@link #NOT_FOUND}
+     */
+    int findByTitle(String ownerKey, String title);
+
+    int size();
+
+    static String normalizeTitle(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.storage;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar {@link BookTable} for large catalogs. Instead of one object per book it keeps:
+ * <ul>
+ *     <li>ids in an {@code int[]},</li>
+ *     <li>author names and owner keys dictionary-encoded as {@code int[]} codes, since many books share an author,</li>
+ *     <li>titles, ISBNs and publication dates as UTF-8 in off-heap {@link ByteBuffer} segments, referenced by a
+ *     {@code long[]} per column.</li>
+ * </ul>
+ * The indexes of ids, of titles and of titles per owner are open addressing tables of row numbers. {@link BookDTO}s are
+ * only created when a row is read. Replacing a row appends the new strings, the space of the old ones is not
+ * reclaimed.
+ * <p>
+ * Reads share a read lock, writes take the write lock.
+ */
+public class CompactBookTable implements BookTable {
+
+    private static final int SEGMENT_SIZE = 1 << 22;
+    private static final long NULL_REFERENCE = -1;
+
+    /**
+     * Maps strings to dense int codes and back. {@code null} is encoded as -1.
+     */
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        /**
+         * @return the code of the value or -1 if it was never encoded
+         */
+        int codeOf(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        String decode(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, all guarded by lock
+    private int size;
+    private int[] ids = new int[1024];
+    private int[] authorCodes = new int[1024];
+    private int[] ownerCodes = new int[1024];
+    private int[] titleHashes = new int[1024];
+    private long[] titleReferences = new long[1024];
+    private long[] isbnReferences = new long[1024];
+    private long[] publishedDateReferences = new long[1024];
+    private long[] revisions = new long[1024];
+
+    private final Dictionary authors = new Dictionary();
+    private final Dictionary owners = new Dictionary();
+
+    private final List<ByteBuffer> segments = new ArrayList<>();
+
+    // Open addressing, a slot holds row + 1 and 0 means free
+    private int[] idSlots = new int[2048];
+    private int[] titleSlots = new int[2048];
+    private int[] ownerTitleSlots = new int[2048];
+    private int indexedIds;
+    private int indexedTitles;
+    private int indexedOwnerTitles;
+
+    @Override
+    public int insert(BookDTO book, String ownerKey, long revision) {
+        lock.writeLock().lock();
+        try {
+            int row = size;
+            ensureCapacity(row + 1);
+            ids[row] = book.getId();
+            ownerCodes[row] = owners.encode(ownerKey);
+            write(row, book, revision);
+            size = row + 1;
+
+            if (findByIdLocked(book.getId()) == NOT_FOUND) {
+                if (++indexedIds * 2 > idSlots.length) {
+                    idSlots = rehash(idSlots, r -> ids[r]);
+                }
+                insertSlot(idSlots, book.getId(), row);
+            }
+            if (book.getTitle() != null) {
+                String normalizedTitle = BookTable.normalizeTitle(book.getTitle());
+                if (findByTitleLocked(normalizedTitle) == NOT_FOUND) {
+                    if (++indexedTitles * 2 > titleSlots.length) {
+                        titleSlots = rehash(titleSlots, r -> titleHashes[r]);
+                    }
+                    insertSlot(titleSlots, titleHashes[row], row);
+                }
+                if (findByOwnerAndTitleLocked(ownerCodes[row], normalizedTitle) == NOT_FOUND) {
+                    if (++indexedOwnerTitles * 2 > ownerTitleSlots.length) {
+                        ownerTitleSlots = rehash(ownerTitleSlots, this::ownerTitleHashOf);
+                    }
+                    insertSlot(ownerTitleSlots, ownerTitleHashOf(row), row);
+                }
+            }
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void replace(int row, BookDTO book, long revision) {
+        lock.writeLock().lock();
+        try {
+            checkRow(row);
+            write(row, book, revision);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BookDTO get(int row) {
+        lock.readLock().lock();
+        try {
+            checkRow(row);
+            return new BookDTO(ids[row],
+                    readString(titleReferences[row]),
+                    authors.decode(authorCodes[row]),
+                    readString(isbnReferences[row]),
+                    readString(publishedDateReferences[row]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String ownerKeyOf(int row) {
+        lock.readLock().lock();
+        try {
+            checkRow(row);
+            return owners.decode(ownerCodes[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long revisionOf(int row) {
+        lock.readLock().lock();
+        try {
+            checkRow(row);
+            return revisions[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int findById(int id) {
+        lock.readLock().lock();
+        try {
+            return findByIdLocked(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int findByTitle(String title) {
+        lock.readLock().lock();
+        try {
+            return findByTitleLocked(BookTable.normalizeTitle(title));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int findByTitle(String ownerKey, String title) {
+        lock.readLock().lock();
+        try {
+            int ownerCode = owners.codeOf(ownerKey);
+            return ownerCode < 0 ? NOT_FOUND : findByOwnerAndTitleLocked(ownerCode, BookTable.normalizeTitle(title));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(int row, BookDTO book, long revision) {
+        revisions[row] = revision;
+        authorCodes[row] = authors.encode(book.getAuthor());
+        titleHashes[row] = book.getTitle() == null ? 0 : BookTable.normalizeTitle(book.getTitle()).hashCode();
+        titleReferences[row] = writeString(book.getTitle());
+        isbnReferences[row] = writeString(book.getIsbn());
+        publishedDateReferences[row] = writeString(book.getPublishedDate());
+    }
+
+    private int findByIdLocked(int id) {
+        int mask = idSlots.length - 1;
+        for (int slot = mix(id) & mask; idSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = idSlots[slot] - 1;
+            if (ids[row] == id) {
+                return row;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int findByTitleLocked(String normalizedTitle) {
+        int hash = normalizedTitle.hashCode();
+        int mask = titleSlots.length - 1;
+        for (int slot = mix(hash) & mask; titleSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = titleSlots[slot] - 1;
+            if (titleHashes[row] == hash
+                    && normalizedTitle.equals(BookTable.normalizeTitle(readString(titleReferences[row])))) {
+                return row;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int findByOwnerAndTitleLocked(int ownerCode, String normalizedTitle) {
+        int hash = ownerTitleHashOf(ownerCode, normalizedTitle.hashCode());
+        int mask = ownerTitleSlots.length - 1;
+        for (int slot = mix(hash) & mask; ownerTitleSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = ownerTitleSlots[slot] - 1;
+            if (ownerCodes[row] == ownerCode && titleHashes[row] == normalizedTitle.hashCode()
+                    && normalizedTitle.equals(BookTable.normalizeTitle(readString(titleReferences[row])))) {
+                return row;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int ownerTitleHashOf(int row) {
+        return ownerTitleHashOf(ownerCodes[row], titleHashes[row]);
+    }
+
+    private static int ownerTitleHashOf(int ownerCode, int titleHash) {
+        return 31 * ownerCode + titleHash;
+    }
+
+    private interface RowHash {
+        int of(int row);
+    }
+
+    private static void insertSlot(int[] slots, int hash, int row) {
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    private static int[] rehash(int[] slots, RowHash hash) {
+        int[] newSlots = new int[slots.length * 2];
+        for (int entry : slots) {
+            if (entry != 0) {
+                insertSlot(newSlots, hash.of(entry - 1), entry - 1);
+            }
+        }
+        return newSlots;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        authorCodes = Arrays.copyOf(authorCodes, newLength);
+        ownerCodes = Arrays.copyOf(ownerCodes, newLength);
+        titleHashes = Arrays.copyOf(titleHashes, newLength);
+        titleReferences = Arrays.copyOf(titleReferences, newLength);
+        isbnReferences = Arrays.copyOf(isbnReferences, newLength);
+        publishedDateReferences = Arrays.copyOf(publishedDateReferences, newLength);
+        revisions = Arrays.copyOf(revisions, newLength);
+    }
+
+    /**
+     * Appends the string to the current off-heap segment.
+     *
+     * @return reference of the form {@code segment index << 32 | offset}, pointing to the length followed by the
+     * UTF-8 bytes
+     */
+    private long writeString(String value) {
+        if (value == null) {
+            return NULL_REFERENCE;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int required = Integer.BYTES + bytes.length;
+        ByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < required) {
+            segment = ByteBuffer.allocateDirect(Math.max(SEGMENT_SIZE, required));
+            segments.add(segment);
+        }
+        int offset = segment.position();
+        segment.putInt(bytes.length).put(bytes);
+        return ((long) (segments.size() - 1) << 32) | offset;
+    }
+
+    private String readString(long reference) {
+        if (reference == NULL_REFERENCE) {
+            return null;
+        }
+        ByteBuffer segment = segments.get((int) (reference >>> 32));
+        int offset = (int) reference;
+        byte[] bytes = new byte[segment.getInt(offset)];
+        segment.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " does not exist");
+        }
+    }
+}
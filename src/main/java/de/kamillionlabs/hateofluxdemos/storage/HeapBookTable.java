@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.storage;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link BookTable} keeping every book as a {@link BookDTO} object on the heap. Reads don't take any lock.
+ */
+public class HeapBookTable implements BookTable {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private record Row(BookDTO book, String ownerKey, long revision) {
+    }
+
+    private record OwnerAndTitle(String ownerKey, String normalizedTitle) {
+    }
+
+    // Chunks are never moved, so a row stays where it is while the table grows
+    private final CopyOnWriteArrayList<AtomicReferenceArray<Row>> chunks = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<Integer, Integer> rowsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> rowsByTitle = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<OwnerAndTitle, Integer> rowsByOwnerAndTitle = new ConcurrentHashMap<>();
+    private volatile int size;
+
+    @Override
+    public int insert(BookDTO book, String ownerKey, long revision) {
+        int row;
+        synchronized (this) {
+            row = size;
+            if ((row & (CHUNK_SIZE - 1)) == 0) {
+                chunks.add(new AtomicReferenceArray<>(CHUNK_SIZE));
+            }
+            chunks.get(row >>> CHUNK_BITS).set(row & (CHUNK_SIZE - 1), new Row(book, ownerKey, revision));
+            size = row + 1;
+        }
+        rowsById.putIfAbsent(book.getId(), row);
+        if (book.getTitle() != null) {
+            String normalizedTitle = BookTable.normalizeTitle(book.getTitle());
+            rowsByTitle.putIfAbsent(normalizedTitle, row);
+            rowsByOwnerAndTitle.putIfAbsent(new OwnerAndTitle(ownerKey, normalizedTitle), row);
+        }
+        return row;
+    }
+
+    @Override
+    public void replace(int row, BookDTO book, long revision) {
+        chunkOf(row).set(row & (CHUNK_SIZE - 1), new Row(book, ownerKeyOf(row), revision));
+    }
+
+    @Override
+    public BookDTO get(int row) {
+        return chunkOf(row).get(row & (CHUNK_SIZE - 1)).book();
+    }
+
+    @Override
+    public String ownerKeyOf(int row) {
+        return chunkOf(row).get(row & (CHUNK_SIZE - 1)).ownerKey();
+    }
+
+    @Override
+    public long revisionOf(int row) {
+        return chunkOf(row).get(row & (CHUNK_SIZE - 1)).revision();
+    }
+
+    @Override
+    public int findById(int id) {
+        return rowsById.getOrDefault(id, NOT_FOUND);
+    }
+
+    @Override
+    public int findByTitle(String title) {
+        return rowsByTitle.getOrDefault(BookTable.normalizeTitle(title), NOT_FOUND);
+    }
+
+    @Override
+    public int findByTitle(String ownerKey, String title) {
+        OwnerAndTitle key = new OwnerAndTitle(ownerKey, BookTable.normalizeTitle(title));
+        return rowsByOwnerAndTitle.getOrDefault(key, NOT_FOUND);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private AtomicReferenceArray<Row> chunkOf(int row) {
+        return chunks.get(row >>> CHUNK_BITS);
+    }
+}
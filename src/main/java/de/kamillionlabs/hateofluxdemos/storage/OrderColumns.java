@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.storage;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Append-only column store for orders. Every property is kept in its own primitive array, the status is dictionary
+ * encoded into one byte. Orders are addressed by their position, i.e. the order in which they were appended.
+ * <p>
+ * Compared to a list of {@link OrderDTO}s this needs no object per order and lets aggregations run as tight loops
+ * over one array at a time, see {@link #aggregate(int)}.
+ * <p>
+ * Appends are serialized, reads don't block. A reader sees every order that was appended before it started.
+ */
+public final class OrderColumns {
+
+    /**
+     * Aggregate over a set of orders.
+     *
+     * @param countsByStatusCode
+     *         number of orders per status code, see {@link #statusOf(int)}
+     */
+    public record Aggregate(long count, double revenue, long[] countsByStatusCode) {
+
+        private Aggregate plus(Aggregate other) {
+            long[] counts = countsByStatusCode.clone();
+            for (int code = 0; code < counts.length; code++) {
+                counts[code] += other.countsByStatusCode[code];
+            }
+            return new Aggregate(count + other.count, revenue + other.revenue, counts);
+        }
+    }
+
+    /**
+     * The arrays may be longer than {@code size}. Slots below {@code size} are never written again, so a reader can
+     * safely use an instance while later appends fill the slots above.
+     */
+    private record Columns(int[] ids, long[] userIds, double[] totals, byte[] statusCodes, int size) {
+    }
+
+    private static final int MAX_STATUSES = 256;
+
+    /**
+     * Number of orders a single fork-join task scans; larger ranges are split.
+     */
+    private static final int SCAN_CHUNK_SIZE = 1 << 16;
+
+    private final List<String> statuses = new CopyOnWriteArrayList<>();
+
+    private volatile Columns columns;
+
+    public OrderColumns() {
+        this(16);
+    }
+
+    public OrderColumns(int initialCapacity) {
+        columns = new Columns(new int[initialCapacity], new long[initialCapacity], new double[initialCapacity],
+                new byte[initialCapacity], 0);
+    }
+
+    /**
+     * @return the position of the appended order
+     * @throws IllegalStateException
+     *         if the order has a status that would exceed the 256 distinct statuses the dictionary can encode
+     */
+    public synchronized int append(OrderDTO order) {
+        byte statusCode = encode(order.getStatus());
+        Columns current = columns;
+        int position = current.size();
+        if (position == current.ids().length) {
+            int capacity = Math.max(16, position + (position >> 1));
+            current = new Columns(
+                    Arrays.copyOf(current.ids(), capacity),
+                    Arrays.copyOf(current.userIds(), capacity),
+                    Arrays.copyOf(current.totals(), capacity),
+                    Arrays.copyOf(current.statusCodes(), capacity),
+                    position);
+        }
+        current.ids()[position] = order.getId();
+        current.userIds()[position] = order.getUserId();
+        current.totals()[position] = order.getTotal();
+        current.statusCodes()[position] = statusCode;
+        columns = new Columns(current.ids(), current.userIds(), current.totals(), current.statusCodes(),
+                position + 1);
+        return position;
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * @return a new {@link OrderDTO} with the values of the order at {@code position}
+     */
+    public OrderDTO get(int position) {
+        Columns c = columns;
+        return new OrderDTO(c.ids()[position], c.userIds()[position], c.totals()[position],
+                statuses.get(c.statusCodes()[position] & 0xFF));
+    }
+
+    public int idAt(int position) {
+        return columns.ids()[position];
+    }
+
+    public long userIdAt(int position) {
+        return columns.userIds()[position];
+    }
+
+    public double totalAt(int position) {
+        return columns.totals()[position];
+    }
+
+    public String statusAt(int position) {
+        return statuses.get(columns.statusCodes()[position] & 0xFF);
+    }
+
+    /**
+     * @return the status with {@code statusCode}, which may be {@code null} since orders without status are counted
+     * as well
+     */
+    public String statusOf(int statusCode) {
+        return statuses.get(statusCode);
+    }
+
+    /**
+     * Aggregates the first {@code count} orders. The orders are scanned in parallel in the common fork-join pool, i.e.
+     * the calling thread blocks until the scan completes.
+     */
+    public Aggregate aggregate(int count) {
+        return ForkJoinPool.commonPool().invoke(new AggregateTask(columns, null, 0, count));
+    }
+
+    /**
+     * Same as {@link #aggregate(int)}, but for the orders at {@code positions}.
+     */
+    public Aggregate aggregate(int[] positions) {
+        return ForkJoinPool.commonPool().invoke(new AggregateTask(columns, positions, 0, positions.length));
+    }
+
+    private byte encode(String status) {
+        int code = statuses.indexOf(status);
+        if (code < 0) {
+            if (statuses.size() == MAX_STATUSES) {
+                throw new IllegalStateException("Too many distinct order statuses");
+            }
+            statuses.add(status);
+            code = statuses.size() - 1;
+        }
+        return (byte) code;
+    }
+
+    private static final class AggregateTask extends RecursiveTask<Aggregate> {
+
+        private final Columns columns;
+        private final int[] positions;
+        private final int from;
+        private final int to;
+
+        private AggregateTask(Columns columns, int[] positions, int from, int to) {
+            this.columns = columns;
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Aggregate compute() {
+            if (to - from <= SCAN_CHUNK_SIZE) {
+                return positions == null ? scanRange() : scanPositions();
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask right = new AggregateTask(columns, positions, middle, to);
+            right.fork();
+            Aggregate left = new AggregateTask(columns, positions, from, middle).compute();
+            return left.plus(right.join());
+        }
+
+        /**
+         * One loop per column without branches or indirection, which the JIT can unroll and vectorize.
+         */
+        private Aggregate scanRange() {
+            double[] totals = columns.totals();
+            double revenue = 0;
+            for (int i = from; i < to; i++) {
+                revenue += totals[i];
+            }
+            byte[] statusCodes = columns.statusCodes();
+            long[] counts = new long[MAX_STATUSES];
+            for (int i = from; i < to; i++) {
+                counts[statusCodes[i] & 0xFF]++;
+            }
+            return new Aggregate(to - from, revenue, counts);
+        }
+
+        private Aggregate scanPositions() {
+            double[] totals = columns.totals();
+            byte[] statusCodes = columns.statusCodes();
+            double revenue = 0;
+            long[] counts = new long[MAX_STATUSES];
+            for (int i = from; i < to; i++) {
+                int position = positions[i];
+                revenue += totals[position];
+                counts[statusCodes[position] & 0xFF]++;
+            }
+            return new Aggregate(to - from, revenue, counts);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.kamillionlabs.hateoflux.model.hal.HalEmbeddedWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
+import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
+import de.kamillionlabs.hateoflux.model.link.Link;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.service.BookService;
+import de.kamillionlabs.hateofluxdemos.service.OrderService;
+import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JacksonConfigurationTest {
+
+    private final ObjectMapper reflective = new ObjectMapper();
+
+    private final ObjectMapper generated = new ObjectMapper()
+            .registerModule(new JacksonConfiguration().blackbirdModule());
+
+    @Test
+    void hal_wrappers_serialize_the_same_with_generated_accessors() throws Exception {
+        OrderDTO order = new OrderService().getOrder(1234).block();
+        ShipmentDTO shipment = new ShipmentService().getLastShipmentByOrderId(1234).block();
+        HalResourceWrapper<OrderDTO, ShipmentDTO> orderWithShipment = HalResourceWrapper.wrap(order)
+                .withLinks(Link.linkAsSelfOf("order/1234"))
+                .withEmbeddedResource(HalEmbeddedWrapper.wrap(shipment)
+                        .withLinks(Link.linkAsSelfOf("shipment/" + shipment.getId())));
+
+        BookService bookService = new BookService();
+        List<HalResourceWrapper<BookDTO, AuthorDTO>> books = bookService.getAllBooksByAuthorName("Erich Gamma")
+                .map(book -> HalResourceWrapper.wrap(book)
+                        .withLinks(Link.linkAsSelfOf("/book/" + book.getId()))
+                        .withEmbeddedResource(HalEmbeddedWrapper.wrap(bookService.getAuthorByName("Erich Gamma")
+                                .block())))
+                .collectList()
+                .block();
+        HalListWrapper<BookDTO, AuthorDTO> booksOfAuthor = HalListWrapper.wrap(books)
+                .withLinks(Link.linkAsSelfOf("/books?authorName=Erich+Gamma"));
+
+        assertThat(generated.writeValueAsString(orderWithShipment))
+                .isEqualTo(reflective.writeValueAsString(orderWithShipment));
+        assertThat(generated.writeValueAsString(booksOfAuthor))
+                .isEqualTo(reflective.writeValueAsString(booksOfAuthor));
+    }
+}
@@ -13,6 +13,8 @@ import de.kamillionlabs.hateofluxdemos.assembler.OrderAssembler;
 import de.kamillionlabs.hateofluxdemos.controller.AssembledOrderController;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.encoding.HalListStreamWriter;
+import de.kamillionlabs.hateofluxdemos.service.LastShipmentLoader;
 import de.kamillionlabs.hateofluxdemos.service.OrderService;
 import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
 import lombok.SneakyThrows;
@@ -40,8 +42,10 @@ public class AssembledOrderControllerTest {
 
     private final ShipmentService shipmentService = new ShipmentService();
 
+    private final LastShipmentLoader lastShipmentLoader = new LastShipmentLoader(shipmentService, 100, 5);
+
     private final AssembledOrderController assembledOrderController = new AssembledOrderController(orderAssembler,
-            orderService, shipmentService);
+            orderService, shipmentService, lastShipmentLoader, new HalListStreamWriter(new ObjectMapper()));
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -75,27 +79,13 @@ public class AssembledOrderControllerTest {
                      "_embedded": {
                        "orderDTOs": [
                          {
-                           "id": 1234,
+                           "id": 1040,
                            "userId": 37,
-                           "total": 99.99,
-                           "status": "Processing",
-                           "_embedded": {
-                             "shipment": {
-                               "id": 127,
-                               "carrier": "UPS",
-                               "trackingNumber": "154-ASD-1238724",
-                               "status": "Completed",
-                               "_links": {
-                                 "self": {
-                                   "href": "http://myservice:8080/shipment/127",
-                                   "hreflang": "en-US"
-                                 }
-                               }
-                             }
-                           },
+                           "total": 72.48,
+                           "status": "Delivered",
                            "_links": {
                              "self": {
-                               "href": "http://myservice:8080/order/1234"
+                               "href": "http://myservice:8080/order/1040"
                              }
                            }
                          },
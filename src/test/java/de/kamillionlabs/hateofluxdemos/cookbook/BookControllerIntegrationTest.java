@@ -10,15 +10,23 @@ package de.kamillionlabs.hateofluxdemos.cookbook;
 
 import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
 import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.skyscreamer.jsonassert.JSONCompareMode.NON_EXTENSIBLE;
 
 /**
@@ -85,6 +93,100 @@ public class BookControllerIntegrationTest {
                 });
     }
 
+    @Test
+    public void testCreateBookWithoutIdIsRejected() {
+        webTestClient.post()
+                .uri("/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {"title": "Nameless", "author": "Joshua Bloch"}
+                        """)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get()
+                .uri("/book/0")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testCreateBookWithoutAuthorOrWithExistingTitleIsRejected() {
+        webTestClient.post()
+                .uri("/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {"id": 701, "title": "Authorless"}
+                        """)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.post()
+                .uri("/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BookDTO.builder()
+                        .id(702)
+                        .title("Effective Java")
+                        .author("Joshua Bloch")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testCreateBooksInBatches() {
+        String books = """
+                {"id": 800, "title": "Patterns of Enterprise Application Architecture", "author": "Martin Fowler"}
+                {"id": 801, "title": "UML Distilled", "author": "Martin Fowler"}
+                {"id": 802, "title": "Refactoring: Improving the Design of Existing Code", "author": "Martin Fowler"}
+                {"id": 803, "author": "Martin Fowler"}
+                """;
+
+        webTestClient.post()
+                .uri("/books?batchSize=2")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(books)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(responseBody -> {
+                    try {
+                        JSONArray jsonArray = new JSONArray(responseBody);
+                        JSONAssert.assertEquals("""
+                                {
+                                  "batch": 0,
+                                  "accepted": 2,
+                                  "rejected": 0,
+                                  "errors": [],
+                                  "_links": {
+                                    "self": {
+                                      "href": "/books"
+                                    }
+                                  }
+                                }
+                                """, jsonArray.get(0).toString(), NON_EXTENSIBLE);
+                        JSONAssert.assertEquals("""
+                                {
+                                  "batch": 1,
+                                  "accepted": 0,
+                                  "rejected": 2,
+                                  "errors": [
+                                    "Book 803 must have a title",
+                                    "Book 802 already exists for this author"
+                                  ],
+                                  "_links": {
+                                    "self": {
+                                      "href": "/books"
+                                    }
+                                  }
+                                }
+                                """, jsonArray.get(1).toString(), NON_EXTENSIBLE);
+                    } catch (Exception e) {
+                        throw new AssertionError("JSON comparison failed", e);
+                    }
+                });
+    }
+
     @Test
     public void testGetBookFound() {
         String expectedJson = """
@@ -173,6 +275,53 @@ public class BookControllerIntegrationTest {
                 });
     }
 
+    @Test
+    public void testSearchBooksByTermAndPrefix() {
+        String expectedJson = """
+                {
+                  "_embedded": {
+                    "customBooks": [
+                      {
+                        "id": 4,
+                        "title": "Java Puzzlers",
+                        "author": "Brian Goetz",
+                        "isbn": "978-0321336781",
+                        "publishedDate": "2005-07-24",
+                        "_links": {
+                          "self": {
+                            "href": "/book/4"
+                          }
+                        }
+                      }
+                    ]
+                  },
+                  "page": {
+                    "size": 20,
+                    "totalElements": 1,
+                    "totalPages": 1,
+                    "number": 0
+                  }
+                }
+                """;
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/books/search")
+                        .queryParam("q", "java pu")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .consumeWith(response -> {
+                    String actualJson = response.getResponseBody();
+                    try {
+                        JSONAssert.assertEquals(expectedJson, actualJson, false);
+                    } catch (Exception e) {
+                        throw new AssertionError("JSON comparison failed", e);
+                    }
+                });
+    }
+
     @Test
     public void testGetAllBooksByAuthorFoundAsStream() {
         webTestClient.get()
@@ -313,4 +462,155 @@ public class BookControllerIntegrationTest {
                 .expectBody()
                 .isEmpty();
     }
+
+    @Test
+    public void testGetBookNotModified() {
+        String eTag = webTestClient.get()
+                .uri("/book/2")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get()
+                .uri("/book/2")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody()
+                .isEmpty();
+
+        // The representation with author has its own ETag
+        webTestClient.get()
+                .uri("/book/2?withAuthor=true")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    public void testGetAllBooksByAuthorNotModified() {
+        String eTag = webTestClient.get()
+                .uri("/books?authorName=Michael Feathers")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get()
+                .uri("/books?authorName=Michael Feathers")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    public void testUpdateBookWithIfMatch() {
+        String eTag = webTestClient.get()
+                .uri("/book/9")
+                .exchange()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        BookDTO updatedBook = BookDTO.builder()
+                .title("The Pragmatic Programmer")
+                .isbn("333-3333333333")
+                .build();
+
+        String newETag = webTestClient.put()
+                .uri("/book")
+                .ifMatch(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedBook)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        assertThat(newETag).isNotNull().isNotEqualTo(eTag);
+
+        // The book has changed since eTag was issued
+        webTestClient.put()
+                .uri("/book")
+                .ifMatch(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedBook)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    public void testUpdateBookWithIfMatchOfRepresentationWithAuthor() {
+        String eTag = webTestClient.get()
+                .uri("/book/10?withAuthor=true")
+                .exchange()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        assertThat(eTag).endsWith("-author\"");
+        webTestClient.put()
+                .uri("/book")
+                .ifMatch(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BookDTO.builder()
+                        .title("Working Effectively with Legacy Code")
+                        .isbn("444-4444444444")
+                        .build())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    public void testGetAllBooksByAuthorPagesWithCursor() throws JSONException {
+        JSONObject firstPage = new JSONObject(webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/books")
+                        .queryParam("authorName", "Erich Gamma")
+                        .queryParam("size", 2)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody());
+
+        assertThat(idsOf(firstPage)).containsExactly(5, 6);
+        String next = firstPage.getJSONObject("_links").getJSONObject("next").getString("href");
+        String cursor = UriComponentsBuilder.fromUriString(next).build().getQueryParams().getFirst("cursor");
+
+        JSONObject secondPage = new JSONObject(webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/books")
+                        .queryParam("authorName", "Erich Gamma")
+                        .queryParam("cursor", cursor)
+                        .queryParam("size", 2)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody());
+
+        assertThat(idsOf(secondPage)).containsExactly(7);
+        assertThat(secondPage.getJSONObject("_links").has("next")).isFalse();
+    }
+
+    private static List<Integer> idsOf(JSONObject page) throws JSONException {
+        JSONArray books = page.getJSONObject("_embedded").getJSONArray("customBooks");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < books.length(); i++) {
+            ids.add(books.getJSONObject(i).getInt("id"));
+        }
+        return ids;
+    }
 }
\ No newline at end of file
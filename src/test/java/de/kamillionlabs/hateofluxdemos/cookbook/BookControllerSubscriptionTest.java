@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.cookbook;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Counts how often the lookups of the {@link BookService} are actually executed, i.e. subscribed to, per request.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+public class BookControllerSubscriptionTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @SpyBean
+    private BookService bookService;
+
+    private final Map<String, AtomicInteger> subscriptions = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void countSubscriptions() {
+        doAnswer(invocation -> counted("getRevisionedBookById", (Mono<?>) invocation.callRealMethod()))
+                .when(bookService).getRevisionedBookById(anyInt());
+        doAnswer(invocation -> counted("getAuthorByName", (Mono<?>) invocation.callRealMethod()))
+                .when(bookService).getAuthorByName(anyString());
+        doAnswer(invocation -> counted("updateBook", (Mono<?>) invocation.callRealMethod()))
+                .when(bookService).updateBook(any(BookDTO.class), any());
+        doAnswer(invocation -> counted("getRevisionOfBooksByAuthorName", (Mono<?>) invocation.callRealMethod()))
+                .when(bookService).getRevisionOfBooksByAuthorName(anyString());
+        doAnswer(invocation -> counted("getBooksByAuthorName", (Mono<?>) invocation.callRealMethod()))
+                .when(bookService).getBooksByAuthorName(anyString(), any(), anyInt());
+    }
+
+    @Test
+    public void testGetBookWithAuthorLooksUpBookAndAuthorOnce() {
+        webTestClient.get()
+                .uri("/book/1?withAuthor=true")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(subscriptionsOf("getRevisionedBookById")).hasValue(1);
+        assertThat(subscriptionsOf("getAuthorByName")).hasValue(1);
+    }
+
+    @Test
+    public void testGetMissingBookLooksUpBookOnce() {
+        webTestClient.get()
+                .uri("/book/999?withAuthor=true")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertThat(subscriptionsOf("getRevisionedBookById")).hasValue(1);
+        assertThat(subscriptionsOf("getAuthorByName")).hasValue(0);
+    }
+
+    @Test
+    public void testGetAllBooksOfAuthorLooksUpBooksOnce() {
+        webTestClient.get()
+                .uri("/books?authorName=Erich Gamma")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(subscriptionsOf("getRevisionOfBooksByAuthorName")).hasValue(1);
+        assertThat(subscriptionsOf("getBooksByAuthorName")).hasValue(1);
+    }
+
+    @Test
+    public void testGetAllBooksOfUnknownAuthorLooksUpRevisionOnly() {
+        webTestClient.get()
+                .uri("/books?authorName=Nobody")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_FOUND);
+
+        // Books of unknown authors aren't looked up at all
+        assertThat(subscriptionsOf("getRevisionOfBooksByAuthorName")).hasValue(1);
+        assertThat(subscriptionsOf("getBooksByAuthorName")).hasValue(0);
+    }
+
+    @Test
+    public void testUpdateBookRunsUpdateOnce() {
+        webTestClient.put()
+                .uri("/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BookDTO.builder()
+                        .title("Clean Code")
+                        .isbn("222-2222222222")
+                        .build())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(subscriptionsOf("updateBook")).hasValue(1);
+    }
+
+    private Mono<?> counted(String lookup, Mono<?> mono) {
+        return mono.doOnSubscribe(s -> subscriptionsOf(lookup).incrementAndGet());
+    }
+
+    private AtomicInteger subscriptionsOf(String lookup) {
+        return subscriptions.computeIfAbsent(lookup, l -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.cookbook;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ResponseCacheStatsDTO;
+import de.kamillionlabs.hateofluxdemos.encoding.HalResponseCache;
+import de.kamillionlabs.hateofluxdemos.service.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+public class HalResponseCacheIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private HalResponseCache halResponseCache;
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    public void testBookIsServedFromCacheUntilItIsUpdated() {
+        // An author of their own, so that the book doesn't show up in the lists of other tests
+        bookService.addAuthorWithBooks(AuthorDTO.builder()
+                        .id(4711)
+                        .name("Cache Tester")
+                        .build(),
+                List.of(BookDTO.builder()
+                        .id(4711)
+                        .title("Cached Book")
+                        .author("Cache Tester")
+                        .isbn("111-1111111111")
+                        .build())).block();
+        ResponseCacheStatsDTO before = halResponseCache.getStats();
+
+        String eTag = getBook().expectHeader().valueEquals(HttpHeaders.CONTENT_TYPE, "application/hal+json")
+                .expectBody().jsonPath("$.isbn").isEqualTo("111-1111111111")
+                .returnResult().getResponseHeaders().getETag();
+        getBook().expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_TYPE, "application/hal+json")
+                .expectBody().jsonPath("$.isbn").isEqualTo("111-1111111111")
+                .jsonPath("$._links.self.href").isEqualTo("/book/4711");
+
+        ResponseCacheStatsDTO afterHit = halResponseCache.getStats();
+        assertThat(afterHit.getMissCount() - before.getMissCount()).isEqualTo(1);
+        assertThat(afterHit.getHitCount() - before.getHitCount()).isEqualTo(1);
+
+        bookService.updateBook(BookDTO.builder()
+                .title("Cached Book")
+                .isbn("222-2222222222")
+                .build()).block();
+
+        getBook().expectBody().jsonPath("$.isbn").isEqualTo("222-2222222222");
+        ResponseCacheStatsDTO afterUpdate = halResponseCache.getStats();
+        assertThat(afterUpdate.getInvalidationCount() - afterHit.getInvalidationCount()).isEqualTo(1);
+        assertThat(afterUpdate.getMissCount() - afterHit.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConditionalRequestsAndMissingResourcesBypassTheCache() {
+        String eTag = webTestClient.get()
+                .uri("/book/2")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get()
+                .uri("/book/2")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.get()
+                .uri("/manual/order-no-embedded/999999")
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get()
+                .uri("/manual/order-no-embedded/999999")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.get()
+                .uri("/response-cache/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.maxEntries").isEqualTo(10000)
+                .jsonPath("$._links.self.href").isEqualTo("/response-cache/stats");
+    }
+
+    private WebTestClient.ResponseSpec getBook() {
+        return webTestClient.get()
+                .uri("/book/4711")
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
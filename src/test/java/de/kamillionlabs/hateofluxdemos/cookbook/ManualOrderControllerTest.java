@@ -11,8 +11,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.kamillionlabs.hateoflux.model.hal.HalListWrapper;
 import de.kamillionlabs.hateoflux.model.hal.HalResourceWrapper;
 import de.kamillionlabs.hateofluxdemos.controller.ManualOrderController;
+import de.kamillionlabs.hateofluxdemos.controller.ShipmentController;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
 import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import de.kamillionlabs.hateofluxdemos.encoding.HalListStreamWriter;
+import de.kamillionlabs.hateofluxdemos.link.RouteTable;
 import de.kamillionlabs.hateofluxdemos.service.OrderService;
 import de.kamillionlabs.hateofluxdemos.service.ShipmentService;
 import lombok.SneakyThrows;
@@ -38,7 +41,7 @@ class ManualOrderControllerTest {
     private final ShipmentService shipmentService = new ShipmentService();
 
     private final ManualOrderController manualOrderController = new ManualOrderController(orderService,
-            shipmentService);
+            shipmentService, RouteTable.of(ShipmentController.class), new HalListStreamWriter(new ObjectMapper()));
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -142,24 +145,24 @@ class ManualOrderControllerTest {
                     "_embedded": {
                       "orderDTOs": [
                         {
-                          "id": 1234,
+                          "id": 9510,
                           "userId": 37,
-                          "total": 99.99,
-                          "status": "Processing",
+                          "total": 199.99,
+                          "status": "Returned",
                           "_links": {
                             "self": {
-                              "href": "http://myservice:8080/orders/1234"
+                              "href": "http://myservice:8080/orders/9510"
                             }
                           }
                         },
                         {
-                          "id": 1057,
+                          "id": 7258,
                           "userId": 37,
-                          "total": 72.48,
+                          "total": 34.0,
                           "status": "Delivered",
                           "_links": {
                             "self": {
-                              "href": "http://myservice:8080/orders/1057"
+                              "href": "http://myservice:8080/orders/7258"
                             }
                           }
                         }
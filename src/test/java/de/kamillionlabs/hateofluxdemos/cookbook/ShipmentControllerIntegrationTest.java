@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.cookbook;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+public class ShipmentControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testGetShipmentsByIds() {
+        webTestClient.get()
+                .uri("/shipment?ids=4125,3287,999999,4125")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.shipments.length()").isEqualTo(2)
+                .jsonPath("$._embedded.shipments[0].id").isEqualTo(4125)
+                .jsonPath("$._embedded.shipments[0]._links.self.href").isEqualTo("/shipment/4125")
+                .jsonPath("$._embedded.shipments[1].id").isEqualTo(3287)
+                .jsonPath("$._links.self.href").isEqualTo("/shipment?ids=4125,3287,999999,4125");
+    }
+
+    @Test
+    public void testGetShipmentsByUnknownIds() {
+        webTestClient.get()
+                .uri("/shipment?ids=999999")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.shipments.length()").isEqualTo(0);
+    }
+
+    @Test
+    public void testGetShipmentByTrackingNumber() {
+        webTestClient.get()
+                .uri("/shipment/by-tracking/154-ASD-1238724")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(127)
+                .jsonPath("$._links.self.href").isEqualTo("/shipment/127")
+                .jsonPath("$._links.order.href").isEqualTo("/manual/order-no-embedded/1234");
+
+        webTestClient.get()
+                .uri("/shipment/by-tracking/000-XXX-0000000")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.cookbook;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.skyscreamer.jsonassert.JSONCompareMode.STRICT;
+
+/**
+ * Streamed lists must be indistinguishable from their collected counterparts.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+public class StreamedListIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @SneakyThrows
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/manual/orders-with-pagination?userId=37&page=0&size=2&sort=id,desc",
+            "/manual/orders-with-pagination?userId=37&page=1&size=2",
+            "/assembled/orders-with-single-embedded-and-pagination?userId=37&page=0&size=2&sort=id,asc",
+            "/assembled/orders-with-single-embedded-and-pagination?page=2&size=5",
+            "/assembled/orders-with-single-embedded-and-pagination?userId=37&someDifferentFilter=x&page=0&size=2",
+            "/assembled/orders-with-single-embedded-and-pagination?userId=999999&page=0&size=2"
+    })
+    public void testStreamedListEqualsCollectedList(String uri) {
+        String collected = get(uri);
+        String streamed = get(uri.replace("?", "/streamed?"));
+
+        JSONAssert.assertEquals(collected, streamed, STRICT);
+    }
+
+    private String get(String uri) {
+        return webTestClient.get()
+                .uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
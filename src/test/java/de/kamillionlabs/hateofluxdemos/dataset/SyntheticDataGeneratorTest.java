@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.dataset;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticDataGeneratorTest {
+
+    @Test
+    void same_seed_generates_same_dataset() {
+        List<OrderDTO> orders = new SyntheticDataGenerator(42, 1.0).orders(10_000, 100);
+
+        assertThat(new SyntheticDataGenerator(42, 1.0).orders(10_000, 100)).isEqualTo(orders);
+        assertThat(new SyntheticDataGenerator(43, 1.0).orders(10_000, 100)).isNotEqualTo(orders);
+        assertThat(shipmentsOf(new SyntheticDataGenerator(42, 1.0), orders))
+                .isEqualTo(shipmentsOf(new SyntheticDataGenerator(42, 1.0), orders));
+    }
+
+    @Test
+    void most_active_users_place_most_orders() {
+        List<OrderDTO> orders = new SyntheticDataGenerator(42, 1.0).orders(100_000, 1_000);
+
+        long ofTopTenUsers = orders.stream()
+                .filter(order -> order.getUserId() < SyntheticDataGenerator.FIRST_ID + 10)
+                .count();
+        // Harmonic numbers: H(10) / H(1000) is about 0.39
+        assertThat(ofTopTenUsers).isBetween(35_000L, 43_000L);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getUserId())
+                .isBetween((long) SyntheticDataGenerator.FIRST_ID, SyntheticDataGenerator.FIRST_ID + 999L));
+    }
+
+    private static List<String> shipmentsOf(SyntheticDataGenerator generator, List<OrderDTO> orders) {
+        return generator.shipments(orders, 3).stream()
+                .map(pair -> pair.left() + ": " + pair.right())
+                .toList();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateoflux.model.link.Link;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BaseUrlTest {
+
+    @Test
+    void links_match_those_with_prepended_base_url() {
+        ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("http://myservice:8080/assembled/orders?userId=37")
+                .build());
+
+        assertThat(BaseUrl.link("order/1040", exchange).getHref())
+                .isEqualTo(Link.of("order/1040").prependBaseUrl(exchange).getHref())
+                .isEqualTo("http://myservice:8080/order/1040");
+        assertThat(BaseUrl.link("order/1041", exchange).getHref()).isEqualTo("http://myservice:8080/order/1041");
+    }
+
+    @Test
+    void prefix_is_resolved_once_per_exchange() {
+        ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("https://www.example.com/order")
+                .build());
+
+        String prefix = BaseUrl.prefixOf(exchange);
+
+        assertThat(prefix).isEqualTo("https://www.example.com/");
+        assertThat(BaseUrl.prefixOf(exchange)).isSameAs(prefix);
+        assertThat(BaseUrl.prefixOf(null)).isEmpty();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateofluxdemos.controller.BookController;
+import de.kamillionlabs.hateofluxdemos.controller.ShipmentController;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static de.kamillionlabs.hateoflux.linkbuilder.SpringControllerLinkBuilder.linkTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class RouteTableTest {
+
+    private final RouteTable routeTable = RouteTable.of(ShipmentController.class, BookController.class);
+
+    @Test
+    void links_match_those_of_the_controller_link_builder() {
+        Method getShipment = RouteTable.methodOf(ShipmentController.class, c -> c.getShipment(0));
+        Method getShipmentByTrackingNumber = RouteTable.methodOf(ShipmentController.class,
+                c -> c.getShipmentByTrackingNumber(null));
+
+        assertThat(routeTable.linkTo(getShipment, 127).getHref())
+                .isEqualTo(linkTo(ShipmentController.class, c -> c.getShipment(127)).getHref())
+                .isEqualTo("/shipment/127");
+        assertThat(routeTable.linkTo(getShipmentByTrackingNumber, "154-ASD-1238724").getHref())
+                .isEqualTo("/shipment/by-tracking/154-ASD-1238724");
+    }
+
+    @Test
+    void request_parameters_become_query_variables() {
+        Method searchBooks = RouteTable.methodOf(BookController.class, c -> c.searchBooks(null, null));
+        Method getShipments = RouteTable.methodOf(ShipmentController.class, c -> c.getShipments(null));
+
+        assertThat(routeTable.templateOf(searchBooks)).hasToString("/books/search{?q}");
+        assertThat(routeTable.linkTo(searchBooks, "Erich Gamma", null).getHref())
+                .isEqualTo("/books/search?q=Erich+Gamma");
+        assertThat(routeTable.linkTo(getShipments, List.of(4125, 3287)).getHref())
+                .isEqualTo("/shipment?ids=4125%2C3287");
+    }
+
+    @Test
+    void methods_are_resolved_from_the_invocation_on_the_proxy() throws NoSuchMethodException {
+        assertThat(RouteTable.methodOf(ShipmentController.class, c -> c.getShipment(0)))
+                .isEqualTo(ShipmentController.class.getMethod("getShipment", int.class));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> RouteTable.methodOf(ShipmentController.class, c -> {
+                }));
+    }
+
+    @Test
+    void unmapped_methods_are_rejected() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> routeTable.linkTo(RouteTable.methodOf(ShipmentController.class, Object::toString)));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> routeTable.templateOf(RouteTable.class.getMethod("linkTo", Method.class,
+                        Object[].class)));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.link;
+
+import de.kamillionlabs.hateoflux.model.link.Link;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class UriTemplateTest {
+
+    @Test
+    void expansion_matches_link_expand() {
+        assertThat(LinkTemplates.ORDER.expand(1234))
+                .isEqualTo(Link.of("orders/{orderId}").expand(1234).getHref())
+                .isEqualTo("orders/1234");
+        assertThat(LinkTemplates.ORDER_SHIPMENT.expand(1234))
+                .isEqualTo(Link.of("orders/{orderId}/shipment").expand(1234).getHref())
+                .isEqualTo("orders/1234/shipment");
+        assertThat(LinkTemplates.BOOKS_OF_AUTHOR_PAGE.expand("Joshua Bloch", "AAAB", 2))
+                .isEqualTo(Link.of("/books{?authorName,cursor,size}").expand("Joshua Bloch", "AAAB", 2).getHref())
+                .isEqualTo("/books?authorName=Joshua+Bloch&cursor=AAAB&size=2");
+        assertThat(LinkTemplates.ORDERS.expand(37L)).isEqualTo("orders?userId=37");
+        assertThat(LinkTemplates.BOOKS_OF_AUTHOR_PAGE.expand("Joshua Bloch", null, 2))
+                .isEqualTo("/books?authorName=Joshua+Bloch&size=2");
+        assertThat(LinkTemplates.ORDERS.expand()).isEqualTo("orders");
+    }
+
+    @Test
+    void expansion_by_name_uses_first_value_and_ignores_other_parameters() {
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+        queryParams.add("page", "1");
+        queryParams.add("userId", "37");
+        queryParams.add("userId", "38");
+
+        assertThat(LinkTemplates.ORDERS.expandWithPrefix("http://myservice:8080/", queryParams))
+                .isEqualTo("http://myservice:8080/orders?userId=37");
+        assertThat(LinkTemplates.ASSEMBLED_ORDERS.expandWithPrefix("http://myservice:8080/", queryParams))
+                .isEqualTo("http://myservice:8080/order?userId=37");
+    }
+
+    @Test
+    void expansion_appends_to_given_builder() {
+        StringBuilder builder = new StringBuilder("https://www.example.com/");
+
+        LinkTemplates.ORDER.appendTo(builder, 1040).append(',');
+        LinkTemplates.ORDER.appendTo(builder, 1041);
+
+        assertThat(builder).hasToString("https://www.example.com/orders/1040,orders/1041");
+    }
+
+    @Test
+    void malformed_templates_are_rejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> UriTemplate.compile("orders/{orderId"));
+        assertThatIllegalArgumentException().isThrownBy(() -> UriTemplate.compile("orders/{+path}"));
+        assertThatIllegalArgumentException().isThrownBy(() -> UriTemplate.compile("orders/{a,b}"));
+    }
+}
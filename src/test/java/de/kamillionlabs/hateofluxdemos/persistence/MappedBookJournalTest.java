@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.persistence;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedBookJournalTest {
+
+    /**
+     * Journal on a disk that fails to force its segments until it is repaired. Flushes only happen when the test asks
+     * for them.
+     */
+    private static class FailingDiskJournal extends MappedBookJournal {
+
+        private volatile boolean isBroken;
+        private final List<MappedByteBuffer> forcedBuffers = new ArrayList<>();
+
+        FailingDiskJournal(Path directory) {
+            super(directory, 256, Duration.ofHours(1), 1_000);
+        }
+
+        @Override
+        synchronized void force(MappedByteBuffer buffer) {
+            if (isBroken) {
+                throw new UncheckedIOException(new IOException("Disk is broken"));
+            }
+            forcedBuffers.add(buffer);
+            super.force(buffer);
+        }
+    }
+
+    @Test
+    void segments_that_failed_to_be_forced_are_forced_by_the_next_flush(@TempDir Path directory) {
+        try (FailingDiskJournal journal = new FailingDiskJournal(directory)) {
+            long lsn = 0;
+            // Rolls over to a new segment at least once
+            for (int i = 0; i < 10; i++) {
+                lsn = journal.append(BookMutation.addBooks("n/a",
+                        List.of(BookDTO.builder().id(i).title("Book " + i).build())));
+            }
+            journal.isBroken = true;
+            CompletableFuture<Void> failedFlush = journal.awaitDurable(lsn).toFuture();
+
+            journal.flush();
+
+            assertThat(failedFlush).failsWithin(Duration.ofSeconds(5));
+            CompletableFuture<Void> retriedFlush = journal.awaitDurable(lsn).toFuture();
+            assertThat(retriedFlush).isNotDone();
+
+            journal.isBroken = false;
+            journal.flush();
+
+            assertThat(retriedFlush).succeedsWithin(Duration.ofSeconds(5));
+            // The full segments and the active one
+            assertThat(journal.forcedBuffers).hasSizeGreaterThan(1);
+        }
+    }
+}
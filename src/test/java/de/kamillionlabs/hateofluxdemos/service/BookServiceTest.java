@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.AuthorDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import de.kamillionlabs.hateofluxdemos.persistence.BookMutation;
+import de.kamillionlabs.hateofluxdemos.persistence.BookSnapshot;
+import de.kamillionlabs.hateofluxdemos.persistence.BookJournal;
+import de.kamillionlabs.hateofluxdemos.persistence.MappedBookJournal;
+import de.kamillionlabs.hateofluxdemos.storage.CompactBookTable;
+import de.kamillionlabs.hateofluxdemos.storage.HeapBookTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class BookServiceTest {
+
+    private final BookService bookService = new BookService();
+
+    @Test
+    void concurrent_reads_and_writes_neither_fail_nor_lose_books() throws Exception {
+        int writers = 4;
+        int booksPerWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers * 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < booksPerWriter; i++) {
+                        int id = 1000 + writer * booksPerWriter + i;
+                        bookService.addBook(BookDTO.builder()
+                                        .id(id)
+                                        .title("Concurrent Book " + id)
+                                        .author("Brian Goetz")
+                                        .build())
+                                .block();
+                        bookService.updateBook(BookDTO.builder()
+                                        .title("Java Puzzlers")
+                                        .isbn("isbn-" + id)
+                                        .build())
+                                .block();
+                    }
+                }));
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < booksPerWriter; i++) {
+                        bookService.getAllBooksByAuthorName("Brian Goetz").collectList().block();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<BookDTO> books = bookService.getAllBooksByAuthorName("Brian Goetz").collectList().block();
+        assertThat(books).hasSize(2 + writers * booksPerWriter);
+        assertThat(bookService.getBookById(4).block().getIsbn()).startsWith("isbn-");
+        assertThat(bookService.getBookByTitle("concurrent book 1000").block()).isNotNull();
+    }
+
+    @Test
+    void books_without_id_are_rejected_before_anything_is_written(@TempDir Path directory) {
+        try (MappedBookJournal journal = new MappedBookJournal(directory, 1 << 16, Duration.ofMillis(1), 1_000)) {
+            BookService service = new BookService(new HeapBookTable(), journal);
+            long lsnBefore = journal.lastLsn();
+            BookDTO withoutId = BookDTO.builder()
+                    .title("Nameless")
+                    .author("Joshua Bloch")
+                    .build();
+
+            assertThatIllegalArgumentException().isThrownBy(() -> service.addBook(withoutId).block());
+            assertThat(service.addBooks(List.of(withoutId)).block().getErrors())
+                    .containsExactly("Book \"Nameless\" must have an id");
+            assertThatIllegalArgumentException().isThrownBy(() -> service.addAuthorWithBooks(AuthorDTO.builder()
+                    .id(99)
+                    .name("Nobody Yet")
+                    .build(), List.of(BookDTO.builder()
+                    .title("Nameless")
+                    .author("Nobody Yet")
+                    .build())).block());
+
+            assertThat(journal.lastLsn()).isEqualTo(lsnBefore);
+            assertThat(service.getBookByTitle("Nameless").block()).isNull();
+            assertThat(service.getAuthorByName("Nobody Yet").block()).isNull();
+        }
+    }
+
+    @Test
+    void windows_stay_ordered_by_id_when_books_arrive_in_any_order() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 2000; id < 2500; id++) {
+            ids.add(id);
+        }
+        Collections.shuffle(ids, new Random(7));
+        for (int batch = 0; batch < ids.size(); batch += 25) {
+            bookService.addBooks(ids.subList(batch, batch + 25).stream()
+                            .map(id -> BookDTO.builder()
+                                    .id(id)
+                                    .title("Scrolled Book " + id)
+                                    .author("Martin Fowler")
+                                    .build())
+                            .toList())
+                    .block();
+        }
+
+        List<Integer> scrolledIds = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        Window<BookDTO> window;
+        do {
+            window = bookService.getBooksByAuthorName("Martin Fowler", position, 7).block();
+            window.forEach(book -> scrolledIds.add(book.getId()));
+            position = window.isEmpty() ? position : (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        } while (window.hasNext());
+
+        assertThat(scrolledIds).hasSize(501).isSorted().startsWith(8, 2000).endsWith(2499);
+    }
+
+    @Test
+    void titles_are_unique_per_author_only() {
+        BookDTO copyOfCleanCode = BookDTO.builder()
+                .id(950)
+                .title("clean code")
+                .author("Robert C. Martin")
+                .build();
+        BookDTO cleanCodeOfAnotherAuthor = BookDTO.builder()
+                .id(951)
+                .title("Clean Code")
+                .author("Martin Fowler")
+                .build();
+
+        assertThat(bookService.addBooks(List.of(copyOfCleanCode, cleanCodeOfAnotherAuthor)).block().getErrors())
+                .containsExactly("Book 950 already exists for this author");
+        assertThat(bookService.addBooks(List.of(cleanCodeOfAnotherAuthor)).block().getErrors())
+                .containsExactly("Book 951 already exists for this author");
+    }
+
+    @Test
+    void compact_storage_answers_like_the_heap_storage() {
+        BookService compact = new BookService(new CompactBookTable(), BookJournal.NONE);
+        compact.addBook(BookDTO.builder()
+                        .id(901)
+                        .title("Java Concurrency in Practice, 2nd Edition")
+                        .author("Brian Goetz")
+                        .build())
+                .block();
+        compact.updateBook(BookDTO.builder()
+                        .title("java puzzlers")
+                        .isbn("111-1111111111")
+                        .build())
+                .block();
+
+        assertThat(compact.getAllBooksByAuthorName("Brian Goetz").collectList().block())
+                .extracting(BookDTO::getId)
+                .containsExactly(3, 4, 901);
+        assertThat(compact.getBookById(4).block()).isEqualTo(BookDTO.builder()
+                .id(4)
+                .title("Java Puzzlers")
+                .author("Brian Goetz")
+                .isbn("111-1111111111")
+                .publishedDate("2005-07-24")
+                .build());
+        assertThat(compact.getBookByTitle("It Somehow Works!").block().getAuthor()).isNull();
+        assertThat(compact.getBookById(12345).block()).isNull();
+    }
+
+    @Test
+    void mutations_survive_a_restart(@TempDir Path directory) {
+        try (MappedBookJournal journal = new MappedBookJournal(directory, 1 << 16, Duration.ofMillis(1), 1_000)) {
+            BookService service = new BookService(new HeapBookTable(), journal);
+            service.addBook(BookDTO.builder()
+                            .id(900)
+                            .title("Refactoring Databases")
+                            .author("Martin Fowler")
+                            .build())
+                    .block();
+            service.updateBook(BookDTO.builder()
+                            .title("Clean Code")
+                            .isbn("000-0000000000")
+                            .build())
+                    .block();
+        }
+
+        try (MappedBookJournal journal = new MappedBookJournal(directory, 1 << 16, Duration.ofMillis(1), 1_000)) {
+            BookService service = new BookService(new HeapBookTable(), journal);
+            assertThat(service.getBookById(900).block().getTitle()).isEqualTo("Refactoring Databases");
+            assertThat(service.getAllBooksByAuthorName("Martin Fowler").collectList().block()).hasSize(2);
+            assertThat(service.getBookByTitle("Clean Code").block().getIsbn()).isEqualTo("000-0000000000");
+        }
+    }
+
+    @Test
+    void waiters_are_released_when_the_journal_is_closed(@TempDir Path directory) {
+        MappedBookJournal journal = new MappedBookJournal(directory, 1 << 16, Duration.ofHours(1), 1_000);
+        long lsn = journal.append(BookMutation.addBooks("n/a", List.of(BookDTO.builder().id(1).title("Kept").build())));
+        CompletableFuture<Void> appended = journal.awaitDurable(lsn).toFuture();
+        CompletableFuture<Void> neverAppended = journal.awaitDurable(lsn + 1).toFuture();
+
+        journal.close();
+
+        assertThat(appended).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(neverAppended).failsWithin(Duration.ofSeconds(5));
+        assertThatIllegalStateException().isThrownBy(() -> journal.awaitDurable(lsn + 1).block());
+        assertThat(journal.awaitDurable(lsn).block(Duration.ofSeconds(5))).isNull();
+    }
+
+    @Test
+    void restart_loads_the_snapshot_and_replays_only_the_log_tail(@TempDir Path directory) {
+        long snapshotLsn;
+        // Small segments, so that the log rolls over several times
+        try (MappedBookJournal journal = new MappedBookJournal(directory, 256, Duration.ofMillis(1), 1_000)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(BookMutation.addBooks("n/a", List.of(BookDTO.builder().id(i).title("Old " + i).build())));
+            }
+            snapshotLsn = journal.lastLsn();
+            journal.writeSnapshot(new BookSnapshot(snapshotLsn, List.of()));
+            for (int i = 0; i < 3; i++) {
+                journal.append(BookMutation.addBooks("n/a", List.of(BookDTO.builder().id(i).title("New " + i).build())));
+            }
+        }
+
+        try (MappedBookJournal journal = new MappedBookJournal(directory, 256, Duration.ofMillis(1), 1_000)) {
+            assertThat(journal.loadLatestSnapshot()).get().extracting(BookSnapshot::lsn).isEqualTo(snapshotLsn);
+            List<String> replayedTitles = new ArrayList<>();
+            journal.replay(snapshotLsn, mutation -> replayedTitles.add(mutation.books().get(0).getTitle()));
+            assertThat(replayedTitles).containsExactly("New 0", "New 1", "New 2");
+            assertThat(journal.lastLsn()).isEqualTo(snapshotLsn + 3);
+        }
+    }
+}
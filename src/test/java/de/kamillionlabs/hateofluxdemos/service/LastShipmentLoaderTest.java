@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.kamillionlabs.hateoflux.utility.pair.PairFlux;
+import de.kamillionlabs.hateofluxdemos.assembler.OrderAssembler;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LastShipmentLoaderTest {
+
+    /**
+     * Stands in for a remote store, where every call has the same latency no matter how many orders it resolves.
+     */
+    private static class SlowShipmentService extends ShipmentService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Mono<ShipmentDTO> getLastShipmentByOrderId(Integer orderId) {
+            calls.incrementAndGet();
+            return super.getLastShipmentByOrderId(orderId).delaySubscription(Duration.ofMillis(20));
+        }
+
+        @Override
+        public Mono<Map<Integer, ShipmentDTO>> getLastShipmentsByOrderIds(Collection<Integer> orderIds) {
+            calls.incrementAndGet();
+            return super.getLastShipmentsByOrderIds(orderIds).delaySubscription(Duration.ofMillis(20));
+        }
+    }
+
+    private final OrderService orderService = new OrderService();
+
+    private final OrderAssembler orderAssembler = new OrderAssembler();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+            .get("https://www.example.com")
+            .build());
+
+    @Test
+    void orders_are_paired_like_with_one_lookup_per_order_but_with_one_call_per_batch() throws Exception {
+        SlowShipmentService perOrder = new SlowShipmentService();
+        PairFlux<OrderDTO, ShipmentDTO> lookedUpPerOrder = PairFlux.zipWith(allOrders(),
+                order -> perOrder.getLastShipmentByOrderId(order.getId()));
+        String expectedJson = objectMapper.writeValueAsString(
+                orderAssembler.wrapInListWrapper(lookedUpPerOrder, exchange).block());
+
+        SlowShipmentService batched = new SlowShipmentService();
+        LastShipmentLoader loader = new LastShipmentLoader(batched, 8, 5);
+        String actualJson = objectMapper.writeValueAsString(
+                orderAssembler.wrapInListWrapper(loader.withLastShipments(allOrders()), exchange).block());
+
+        assertThat(actualJson).isEqualTo(expectedJson);
+        assertThat(perOrder.calls).hasValue(18);
+        // 18 orders in batches of at most 8
+        assertThat(batched.calls).hasValue(3);
+    }
+
+    private Flux<OrderDTO> allOrders() {
+        return orderService.getOrders(null, PageRequest.of(0, 100));
+    }
+}
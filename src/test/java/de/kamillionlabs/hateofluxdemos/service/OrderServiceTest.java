@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderDTO;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.OrderStatisticsDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderServiceTest {
+
+    private final OrderService orderService = new OrderService();
+
+    @Test
+    void added_orders_are_counted_indexed_and_sorted() {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (int id = 20_000; id > 10_000; id--) {
+            orders.add(new OrderDTO(id, 1000L + id % 7, id % 100, "Created"));
+        }
+        orderService.addOrders(orders).block();
+        orderService.addOrder(new OrderDTO(1, 37L, 1.00, "Created")).block();
+
+        assertThat(orderService.countAllOrders(null).block()).isEqualTo(18L + 10_000 + 1);
+        assertThat(orderService.countAllOrdersByUserId(37L).block()).isEqualTo(7L);
+        assertThat(orderService.countAllOrdersByUserId(1000L).block()).isEqualTo(1429L);
+        assertThat(orderService.getOrdersByUserId(1000L).map(OrderDTO::getId).blockFirst()).isEqualTo(19_999);
+
+        List<Integer> firstIds = orderService.getOrders(null, PageRequest.of(0, 3, Sort.by("id")))
+                .map(OrderDTO::getId)
+                .collectList()
+                .block();
+        assertThat(firstIds).containsExactly(1, 1040, 1057);
+        assertThat(orderService.getOrder(15_000).block().getUserId()).isEqualTo(1000L + 15_000 % 7);
+    }
+
+    @Test
+    void sorted_pages_include_orders_added_after_the_last_sorted_read() {
+        PageRequest byTotalDescending = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("total")));
+        assertThat(orderService.getOrdersByUserId(37L, byTotalDescending).map(OrderDTO::getId).collectList().block())
+                .containsExactly(9510, 1234);
+
+        for (int id = 1; id <= 100; id++) {
+            orderService.addOrder(new OrderDTO(id, 37L, id, "Created")).block();
+        }
+
+        assertThat(orderService.getOrdersByUserId(37L, byTotalDescending).map(OrderDTO::getId).collectList().block())
+                .containsExactly(9510, 100);
+        assertThat(orderService.getOrders(null, PageRequest.of(0, 3, Sort.by("id"))).map(OrderDTO::getId)
+                .collectList()
+                .block())
+                .containsExactly(1, 2, 3);
+        assertThat(orderService.getOrders(null, PageRequest.of(0, 2, Sort.by("status"))).map(OrderDTO::getStatus)
+                .collectList()
+                .block())
+                .containsExactly("Created", "Created");
+    }
+
+    @Test
+    void sorted_pages_stay_consistent_while_deltas_are_merged_into_the_base() {
+        Random random = new Random(42);
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 100_000; id < 110_000; id++) {
+            ids.add(id);
+        }
+        Collections.shuffle(ids, random);
+        Comparator<OrderDTO> byTotal = Comparator.comparingDouble(OrderDTO::getTotal)
+                .thenComparingInt(OrderDTO::getId);
+
+        for (int batch = 0; batch < ids.size() / 500; batch++) {
+            List<OrderDTO> orders = new ArrayList<>();
+            for (int id : ids.subList(batch * 500, (batch + 1) * 500)) {
+                orders.add(new OrderDTO(id, 1L, random.nextInt(1000), "Created"));
+            }
+            orderService.addOrders(orders).block();
+
+            List<OrderDTO> ascending = orderService.getAllOrders(null).sort(byTotal).collectList().block();
+            List<OrderDTO> descending = new ArrayList<>(ascending);
+            Collections.reverse(descending);
+            int page = random.nextInt(ascending.size() / 25 + 1);
+            int offset = page * 25;
+            int end = Math.min(ascending.size(), offset + 25);
+            assertThat(orderService.getOrders(null, PageRequest.of(page, 25, Sort.by("total"))).collectList().block())
+                    .isEqualTo(ascending.subList(offset, end));
+            assertThat(orderService.getOrders(null, PageRequest.of(page, 25, Sort.by(Sort.Order.desc("total"))))
+                    .collectList()
+                    .block())
+                    .isEqualTo(descending.subList(offset, end));
+        }
+    }
+
+    @Test
+    void orders_with_taken_ids_are_rejected_as_a_whole() {
+        List<OrderDTO> orders = List.of(
+                new OrderDTO(1, 37L, 1.00, "Created"),
+                new OrderDTO(1234, 37L, 1.00, "Created"));
+
+        assertThatThrownBy(() -> orderService.addOrders(orders).block())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(orderService.countAllOrders(null).block()).isEqualTo(18L);
+        assertThat(orderService.getOrder(1).block()).isNull();
+    }
+
+    @Test
+    void statistics_aggregate_revenue_and_statuses() {
+        OrderStatisticsDTO ofUser = orderService.getStatistics(37L).block();
+        assertThat(ofUser.getOrderCount()).isEqualTo(6);
+        assertThat(ofUser.getRevenue()).isCloseTo(488.94, within(1e-9));
+        assertThat(ofUser.getAverageOrderValue()).isCloseTo(488.94 / 6, within(1e-9));
+        assertThat(ofUser.getOrdersByStatus())
+                .isEqualTo(Map.of("Delivered", 4L, "Processing", 1L, "Returned", 1L));
+
+        OrderStatisticsDTO ofNobody = orderService.getStatistics(1L).block();
+        assertThat(ofNobody.getOrderCount()).isZero();
+        assertThat(ofNobody.getAverageOrderValue()).isZero();
+    }
+
+    @Test
+    void statistics_over_many_orders_are_split_and_merged() {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (int id = 100_000; id < 250_000; id++) {
+            orders.add(new OrderDTO(id, 1L, 2.00, id % 3 == 0 ? "Created" : "Delivered"));
+        }
+        orderService.addOrders(orders).block();
+
+        OrderStatisticsDTO all = orderService.getStatistics(null).block();
+        assertThat(all.getOrderCount()).isEqualTo(18 + 150_000);
+        assertThat(all.getOrdersByStatus()).containsEntry("Created", 1L + 50_000);
+
+        OrderStatisticsDTO ofUser = orderService.getStatistics(1L).block();
+        assertThat(ofUser.getOrderCount()).isEqualTo(150_000);
+        assertThat(ofUser.getRevenue()).isCloseTo(300_000, within(1e-6));
+    }
+
+    @Test
+    void all_orders_are_emitted_on_demand() {
+        StepVerifier.create(orderService.getAllOrders(39L).map(OrderDTO::getId), 1)
+                .expectNext(7250)
+                .thenRequest(1)
+                .expectNext(1230)
+                .verifyComplete();
+
+        StepVerifier.create(orderService.getAllOrders(null), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(10))
+                .thenRequest(18)
+                .expectNextCount(18)
+                .verifyComplete();
+    }
+}
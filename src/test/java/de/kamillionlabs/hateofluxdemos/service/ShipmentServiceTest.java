@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.service;
+
+import de.kamillionlabs.hateoflux.utility.pair.PairList;
+import de.kamillionlabs.hateofluxdemos.datatransferobject.ShipmentDTO;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShipmentServiceTest {
+
+    private final ShipmentService shipmentService = new ShipmentService();
+
+    @Test
+    void last_shipment_is_the_one_with_the_highest_id() {
+        assertThat(shipmentService.getLastShipmentByOrderId(5058).block().getId()).isEqualTo(5032);
+        assertThat(shipmentService.getShipmentsByOrderId(5058).map(ShipmentDTO::getId).collectList().block())
+                .containsExactly(4302, 5032);
+        assertThat(shipmentService.getLastShipmentByOrderId(7250).block()).isNull();
+
+        PairList<Integer, ShipmentDTO> shipments = new PairList<>();
+        shipments.add(5058, new ShipmentDTO(6000, "UPS", "154-UPS-0000001", "Pending"));
+        shipments.add(5058, new ShipmentDTO(4500, "UPS", "154-UPS-0000002", "Pending"));
+        shipments.add(7250, new ShipmentDTO(6001, "DHL", "154-DHL-0000003", "Pending"));
+        shipmentService.addShipments(shipments);
+
+        assertThat(shipmentService.getLastShipmentByOrderId(5058).block().getId()).isEqualTo(6000);
+        assertThat(shipmentService.getShipmentsByOrderId(5058).map(ShipmentDTO::getId).collectList().block())
+                .containsExactly(4302, 4500, 5032, 6000);
+        assertThat(shipmentService.getLastShipmentByOrderId(7250).block().getId()).isEqualTo(6001);
+        assertThat(shipmentService.getShipment(4500).block()).isNotNull();
+    }
+
+    @Test
+    void status_changes_are_published_and_coalesced_for_slow_subscribers() {
+        StepVerifier.create(shipmentService.getStatusChanges(127).map(ShipmentDTO::getStatus))
+                .then(() -> shipmentService.updateShipmentStatus(127, "Returned").block())
+                .expectNext("Returned")
+                .thenCancel()
+                .verify();
+
+        // Coalesced per shipment: the latest change of each shipment is kept until requested
+        StepVerifier.create(shipmentService.getStatusChangesOfOrder(1070)
+                        .map(shipment -> shipment.getId() + " " + shipment.getStatus()), 0)
+                .then(() -> {
+                    shipmentService.updateShipmentStatus(2551, "Lost").block();
+                    shipmentService.updateShipmentStatus(3904, "Returned").block();
+                    shipmentService.updateShipmentStatus(2551, "Returned").block();
+                })
+                .thenRequest(1)
+                .expectNext("2551 Returned")
+                .thenRequest(1)
+                .expectNext("3904 Returned")
+                .thenCancel()
+                .verify();
+
+        assertThat(shipmentService.getLastShipmentByOrderId(1070).block().getStatus()).isEqualTo("Returned");
+        assertThat(shipmentService.getShipment(127).block().getStatus()).isEqualTo("Returned");
+        assertThat(shipmentService.updateShipmentStatus(999_999, "Returned").block()).isNull();
+    }
+
+    @Test
+    void colliding_status_changes_are_delivered_without_waiting_for_the_other_emission() throws Exception {
+        CountDownLatch isEmitting = new CountDownLatch(1);
+        CountDownLatch mayContinue = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = shipmentService.getStatusChangesOfOrder(1070)
+                .subscribe(shipment -> {
+                    received.add(shipment.getId() + " " + shipment.getStatus());
+                    if (received.size() == 1) {
+                        // Keeps the first emission running
+                        isEmitting.countDown();
+                        try {
+                            mayContinue.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+        CompletableFuture<ShipmentDTO> blockedUpdate = CompletableFuture.supplyAsync(
+                () -> shipmentService.updateShipmentStatus(2551, "Lost").block());
+        assertThat(isEmitting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        shipmentService.updateShipmentStatus(3904, "Returned").block();
+        assertThat(shipmentService.collidedEmissions()).isEqualTo(1);
+
+        mayContinue.countDown();
+        assertThat(blockedUpdate).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(received).containsExactly("2551 Lost", "3904 Returned");
+        subscription.dispose();
+    }
+
+    @Test
+    void shipments_are_found_by_tracking_number_and_prefix() {
+        assertThat(shipmentService.getShipmentByTrackingNumber(" 154-asd-1238724").block().getId()).isEqualTo(127);
+        assertThat(shipmentService.getShipmentByTrackingNumber("154-ASD-123872").block()).isNull();
+        assertThat(shipmentService.getOrderIdOfShipment(127).block()).isEqualTo(1234);
+
+        assertThat(shipmentService.getShipmentsByTrackingNumberPrefix("154-ASD", 10)
+                .map(ShipmentDTO::getId).collectList().block())
+                .containsExactly(127, 105);
+        assertThat(shipmentService.getShipmentsByTrackingNumberPrefix("154-ASD", 1)
+                .map(ShipmentDTO::getId).collectList().block())
+                .containsExactly(127);
+
+        PairList<Integer, ShipmentDTO> shipments = new PairList<>();
+        shipments.add(7250, new ShipmentDTO(6002, "UPS", "154-ASD-1250000", "Pending"));
+        shipmentService.addShipments(shipments);
+
+        assertThat(shipmentService.getShipmentsByTrackingNumberPrefix("154-asd-12", 10)
+                .map(ShipmentDTO::getId).collectList().block())
+                .containsExactly(127, 6002, 105);
+    }
+
+    @Test
+    void tracking_numbers_of_many_small_batches_are_found_in_order() {
+        // Far more batches than deltas are kept, so some of them are found in compacted runs and some in deltas
+        for (int batch = 0; batch < 50; batch++) {
+            PairList<Integer, ShipmentDTO> shipments = new PairList<>();
+            for (int i = 0; i < 10; i++) {
+                int id = 10_000 + i * 50 + batch;
+                shipments.add(8000 + batch, new ShipmentDTO(id, "UPS", "999-BAT-" + id, "Pending"));
+            }
+            shipmentService.addShipments(shipments);
+        }
+
+        for (int id = 10_000; id < 10_500; id++) {
+            assertThat(shipmentService.getShipmentByTrackingNumber("999-bat-" + id).block().getId()).isEqualTo(id);
+        }
+        assertThat(shipmentService.getShipmentsByTrackingNumberPrefix("999-BAT-100", 5)
+                .map(ShipmentDTO::getId).collectList().block())
+                .containsExactly(10_000, 10_001, 10_002, 10_003, 10_004);
+        assertThat(shipmentService.getShipmentsByTrackingNumberPrefix("999-BAT-", 1_000).count().block())
+                .isEqualTo(500L);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2026 kamillion contributors
+ *
+ * This work is licensed under the GNU General Public License (GPL).
+ *
+ * @since 18.10.2026
+ */
+package de.kamillionlabs.hateofluxdemos.storage;
+
+import de.kamillionlabs.hateofluxdemos.datatransferobject.BookDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactBookTableTest {
+
+    @Test
+    void books_are_found_by_id_and_title_after_the_indexes_grew() {
+        CompactBookTable table = new CompactBookTable();
+        // Far more than the initial 2048 slots, so that both indexes are rehashed several times
+        int bookCount = 10_000;
+        for (int id = 1; id <= bookCount; id++) {
+            table.insert(BookDTO.builder()
+                    .id(id)
+                    .title("Book " + id)
+                    .author("Author " + id % 7)
+                    .build(), "author " + id % 7, id);
+        }
+
+        for (int id = 1; id <= bookCount; id++) {
+            int row = table.findById(id);
+            assertThat(row).isEqualTo(id - 1);
+            assertThat(table.findByTitle("book " + id)).isEqualTo(row);
+            assertThat(table.get(row).getTitle()).isEqualTo("Book " + id);
+        }
+        assertThat(table.findById(bookCount + 1)).isEqualTo(BookTable.NOT_FOUND);
+    }
+}